@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GameMap.checkCollision for player-sized boxes scattered over maps of increasing wall density.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final int QUERIES = 4096;  // Power of two, cycled through with a mask
+
+    @Param({"0.0", "0.1", "0.3", "0.6"})
+    public double wallDensity;
+
+    private Object map;
+    private float[] boxX = new float[QUERIES];
+    private float[] boxY = new float[QUERIES];
+    private int next = 0;
+
+    @Setup
+    public void setup() throws Throwable {
+        File file = SyntheticMaps.write(256, 256, wallDensity, 42);
+        map = Game.newMap();
+        Game.LOAD_MAP.invokeExact(map, file.getPath());
+
+        int width = (int) Game.MAP_WIDTH_PIXELS.invokeExact(map);
+        int height = (int) Game.MAP_HEIGHT_PIXELS.invokeExact(map);
+        Random random = new Random(7);
+        for (int i = 0; i < QUERIES; i++) {
+            boxX[i] = random.nextFloat() * (width - 128);
+            boxY[i] = random.nextFloat() * (height - 128);
+        }
+    }
+
+    @Benchmark
+    public boolean checkCollision() throws Throwable {
+        int i = next++ & (QUERIES - 1);
+        return (boolean) Game.CHECK_COLLISION.invokeExact(map, boxX[i] + 20, boxY[i] + 30, 88f, 68f);
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One simulation step of a pool of patrolling enemies (EnemyPool.updateAll, which replaced
+ * per-object Enemy.update), including broadphase refiling, at three population sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnemyUpdateBenchmark {
+    private static final int WORLD_SIZE = 65536;  // World pixels; large enough to spread 100k enemies
+
+    @Param({"10", "1000", "100000"})
+    public int enemyCount;
+
+    private Object pool;
+
+    @Setup
+    public void setup() throws Throwable {
+        pool = Game.NEW_ENEMY_POOL.invokeExact(Game.newEnemyType(), enemyCount);
+        Object hash = Game.NEW_SPATIAL_HASH.invokeExact(WORLD_SIZE, WORLD_SIZE, 64);
+        Game.POOL_SET_HASH.invokeExact(pool, hash);
+
+        Random random = new Random(42);
+        for (int i = 0; i < enemyCount; i++) {
+            int x = 400 + random.nextInt(WORLD_SIZE - 800);
+            int y = random.nextInt(WORLD_SIZE - 128);
+            int index = (int) Game.POOL_ADD.invokeExact(pool, (float) x, (float) y, 1 + random.nextFloat() * 4, x - 200, x + 200);
+        }
+    }
+
+    @Benchmark
+    public Object updateAll() throws Throwable {
+        // The player box sits outside the world, so no enemy is killed and the population stays fixed
+        Game.POOL_UPDATE_ALL.invokeExact(pool, -1000f, -1000f, 88f, 68f);
+        return pool;
+    }
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import processing.data.JSONArray;
+
+/**
+ * Bridge to the game classes, which live in the default package that JMH benchmarks
+ * (and any named package) cannot reference directly. Every entry point is a constant
+ * method handle with an erased receiver, so the JIT inlines calls just like direct ones.
+ */
+final class Game {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Class<?> GAME_MAP = load("GameMap");
+    private static final Class<?> ENEMY = load("Enemy");
+    private static final Class<?> ENEMY_POOL = load("EnemyPool");
+    private static final Class<?> SPATIAL_HASH = load("SpatialHash");
+    private static final Class<?> PLAYER = load("Player");
+
+    // GameMap
+    static final MethodHandle NEW_MAP = constructor(GAME_MAP, java.io.File.class, int.class, int.class, int.class);
+    static final MethodHandle LOAD_MAP = method(GAME_MAP, "loadMapFromJSON", void.class, String.class);
+    static final MethodHandle PARSE_LAYER = privateMethod(GAME_MAP, "parseLayer", int[][].class, JSONArray.class, int.class, int.class);
+    static final MethodHandle CHECK_COLLISION = method(GAME_MAP, "checkCollision", boolean.class,
+            float.class, float.class, float.class, float.class);
+    static final MethodHandle MAP_WIDTH_PIXELS = method(GAME_MAP, "getWidthInPixels", int.class);
+    static final MethodHandle MAP_HEIGHT_PIXELS = method(GAME_MAP, "getHeightInPixels", int.class);
+
+    // Enemies
+    static final MethodHandle NEW_ENEMY_TYPE = constructor(ENEMY, int.class, int.class, int.class, int.class, int.class);
+    static final MethodHandle NEW_ENEMY_POOL = constructor(ENEMY_POOL, ENEMY, int.class);
+    static final MethodHandle POOL_ADD = method(ENEMY_POOL, "add", int.class,
+            float.class, float.class, float.class, int.class, int.class);
+    static final MethodHandle POOL_SET_MAP = method(ENEMY_POOL, "setGameMap", void.class, GAME_MAP);
+    static final MethodHandle POOL_SET_HASH = method(ENEMY_POOL, "setSpatialHash", void.class, SPATIAL_HASH);
+    static final MethodHandle POOL_UPDATE_ALL = method(ENEMY_POOL, "updateAll", void.class,
+            float.class, float.class, float.class, float.class);
+    static final MethodHandle POOL_SIZE = method(ENEMY_POOL, "size", int.class);
+    static final MethodHandle NEW_SPATIAL_HASH = constructor(SPATIAL_HASH, int.class, int.class, int.class);
+
+    // Player
+    static final MethodHandle NEW_PLAYER = constructor(PLAYER, float.class, float.class, float.class,
+            int.class, int.class, int.class);
+    static final MethodHandle PLAYER_UPDATE_POSITION = method(PLAYER, "updatePosition", void.class, GAME_MAP, ENEMY_POOL);
+    static final MethodHandle PLAYER_KEY_PRESSED = method(PLAYER, "keyPressed", void.class, char.class);
+    static final MethodHandle PLAYER_SET_POSITION = method(PLAYER, "setPosition", void.class, float.class, float.class);
+    static final MethodHandle PLAYER_X = method(PLAYER, "getX", float.class);
+
+    // Asset geometry of the files in data/
+    static final String TILESET = "data/spritesheet.png";
+    static final int TILESET_COLS = 8;
+    static final int TILESET_ROWS = 5;
+    static final int SCALE_FACTOR = 4;
+    static final int SPRITE_SIZE = 32;
+    static final int ENEMY_FRAMES = 6;
+
+    private Game() {
+    }
+
+    /**
+     * A headless map with the game's pixel collision masks and nothing loaded yet.
+     */
+    static Object newMap() throws Throwable {
+        return (Object) NEW_MAP.invokeExact(new java.io.File(TILESET), TILESET_COLS, TILESET_ROWS, SCALE_FACTOR);
+    }
+
+    static Object newEnemyType() throws Throwable {
+        return (Object) NEW_ENEMY_TYPE.invokeExact(SPRITE_SIZE, SPRITE_SIZE, ENEMY_FRAMES, ENEMY_FRAMES, SCALE_FACTOR);
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> type, Class<?>... parameters) {
+        try {
+            return erase(LOOKUP.findConstructor(type, MethodType.methodType(void.class, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle method(Class<?> owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            return erase(LOOKUP.findVirtual(owner, name, MethodType.methodType(returnType, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle privateMethod(Class<?> owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, LOOKUP);
+            return erase(lookup.findVirtual(owner, name, MethodType.methodType(returnType, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Game types in the signature become Object; primitives and JDK types stay as they are
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isGameType(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isGameType(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    private static boolean isGameType(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray() && type.getPackageName().isEmpty();
+    }
+}
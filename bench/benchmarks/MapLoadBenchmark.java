@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+
+/**
+ * Map loading for the shipped levels and a synthetic 1024x1024 map: the whole
+ * loadMapFromJSON (file read, JSON parse, layers, collision grid, flow field) and
+ * parseLayer alone on an already parsed layer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapLoadBenchmark {
+    private static final String SYNTHETIC = "synthetic-1024";
+
+    @Param({"data/map01.json", "data/map02.json", "data/map03.json", "data/map04.json", SYNTHETIC})
+    public String mapFile;
+
+    private Object map;
+    private String path;
+    private JSONArray layer;
+    private int width, height;
+
+    @Setup
+    public void setup() throws Throwable {
+        path = SYNTHETIC.equals(mapFile) ? SyntheticMaps.write(1024, 1024, 0.2, 42).getPath() : mapFile;
+        map = Game.newMap();
+
+        try (Reader reader = new FileReader(path)) {
+            JSONObject mapData = new JSONObject(reader);
+            width = mapData.getInt("width");
+            height = mapData.getInt("height");
+            layer = mapData.getJSONArray("tiles");
+        }
+    }
+
+    @Benchmark
+    public Object loadMapFromJSON() throws Throwable {
+        Game.LOAD_MAP.invokeExact(map, path);
+        return map;
+    }
+
+    @Benchmark
+    public int[][] parseLayer() throws Throwable {
+        return (int[][]) Game.PARSE_LAYER.invokeExact(map, layer, width, height);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Player.updatePosition walking right across a shipped level, with map collision and the
+ * enemy broadphase query, restarting from the left once it passes the far side or a wall.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+    private static final float START_X = 200;
+    private static final float START_Y = 200;
+
+    @Param({"data/map01.json", "data/map02.json"})
+    public String mapFile;
+
+    private Object map;
+    private Object enemies;
+    private Object player;
+    private float limitX;
+
+    @Setup
+    public void setup() throws Throwable {
+        map = Game.newMap();
+        Game.LOAD_MAP.invokeExact(map, mapFile);
+        int width = (int) Game.MAP_WIDTH_PIXELS.invokeExact(map);
+        int height = (int) Game.MAP_HEIGHT_PIXELS.invokeExact(map);
+        limitX = width - 256;
+
+        enemies = Game.NEW_ENEMY_POOL.invokeExact(Game.newEnemyType(), 16);
+        Game.POOL_SET_HASH.invokeExact(enemies, Game.NEW_SPATIAL_HASH.invokeExact(width, height, 64));
+
+        player = Game.NEW_PLAYER.invokeExact(START_X, START_Y, 11.0f, Game.SPRITE_SIZE, Game.SPRITE_SIZE, Game.SCALE_FACTOR);
+        Game.PLAYER_KEY_PRESSED.invokeExact(player, 'd');
+    }
+
+    @Benchmark
+    public float updatePosition() throws Throwable {
+        float before = (float) Game.PLAYER_X.invokeExact(player);
+        Game.PLAYER_UPDATE_POSITION.invokeExact(player, map, enemies);
+        float after = (float) Game.PLAYER_X.invokeExact(player);
+
+        if (after == before || after > limitX) {
+            Game.PLAYER_SET_POSITION.invokeExact(player, START_X, START_Y);
+        }
+        return after;
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Writes generated map files in the game's JSON format for benchmarks that need
+ * sizes or wall densities the shipped maps do not cover.
+ */
+final class SyntheticMaps {
+    private static final int FLOOR_TILE = 1;
+    private static final int WALL_TILE = 2;  // Solid in the default solid tile list
+
+    private SyntheticMaps() {
+    }
+
+    /**
+     * Creates a temporary map file whose cells are walls with the given probability.
+     */
+    static File write(int width, int height, double wallDensity, long seed) throws IOException {
+        Random random = new Random(seed);
+        File file = File.createTempFile("synthetic-" + width + "x" + height + "-", ".json");
+        file.deleteOnExit();
+
+        try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("{\"width\":" + width + ",\"height\":" + height + ",\"tiles\":[");
+            for (int row = 0; row < height; row++) {
+                out.write(row == 0 ? "[" : ",[");
+                for (int col = 0; col < width; col++) {
+                    if (col > 0) out.write(',');
+                    out.write(Integer.toString(random.nextDouble() < wallDensity ? WALL_TILE : FLOOR_TILE));
+                }
+                out.write(']');
+            }
+            out.write("],\"foreground\":[");
+            for (int row = 0; row < height; row++) {
+                out.write(row == 0 ? "[" : ",[");
+                for (int col = 0; col < width; col++) {
+                    out.write(col == 0 ? "0" : ",0");
+                }
+                out.write(']');
+            }
+            out.write("],\"enemies\":[]}");
+        }
+        return file;
+    }
+}
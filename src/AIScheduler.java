@@ -0,0 +1,64 @@
+/**
+ * Round-robin scheduler for enemy AI decisions with a per-frame time budget.
+ * Each frame it resumes where the previous frame stopped and keeps deciding until the
+ * budget is spent; enemies it could not reach keep their last decision until their turn.
+ */
+public class AIScheduler {
+    // Decisions between clock checks, to keep System.nanoTime() off the hot path
+    private static final int CLOCK_CHECK_INTERVAL = 16;
+
+    private long budgetNanos;
+    private int cursor = 0;
+    private int decisionsLastFrame = 0;
+    private int deferredLastFrame = 0;
+
+    /**
+     * Creates a scheduler with the given budget in microseconds; zero or less means unlimited.
+     */
+    public AIScheduler(int budgetMicros) {
+        setBudgetMicros(budgetMicros);
+    }
+
+    public void setBudgetMicros(int budgetMicros) {
+        this.budgetNanos = budgetMicros * 1000L;
+    }
+
+    /**
+     * Gives each enemy at most one decision this frame, stopping early when the budget runs out.
+     */
+    public void run(EnemyPool enemies, float playerX, float playerY) {
+        int count = enemies.size();
+        decisionsLastFrame = 0;
+        deferredLastFrame = 0;
+        if (count == 0) return;
+
+        long start = nanoTime();
+        if (cursor >= count) cursor = 0;
+
+        int visited = 0;
+        while (visited < count) {
+            if (enemies.decide(cursor, playerX, playerY)) {
+                decisionsLastFrame++;
+            }
+            cursor = (cursor + 1) % count;
+            visited++;
+
+            if (budgetNanos > 0 && visited % CLOCK_CHECK_INTERVAL == 0 &&
+                    nanoTime() - start >= budgetNanos) {
+                break;
+            }
+        }
+        deferredLastFrame = count - visited;
+    }
+
+    // The clock the budget is measured on; tests replace it to spend the budget on cue
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    // Getters
+    public int getCursor() { return cursor; }
+    public void setCursor(int cursor) { this.cursor = cursor; }
+    public int getDecisionsLastFrame() { return decisionsLastFrame; }
+    public int getDeferredLastFrame() { return deferredLastFrame; }
+}
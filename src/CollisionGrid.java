@@ -0,0 +1,100 @@
+/**
+ * Packed bitset of the map cells that block movement, kept alongside the tile layers.
+ * A per-chunk count of solid cells lets area queries skip open regions without touching the bits.
+ */
+public class CollisionGrid {
+    // Chunks are 8x8 cells
+    private static final int CHUNK_SHIFT = 3;
+
+    private long[] bits;
+    private int width, height;
+    private int[] chunkCounts;
+    private int chunkCols, chunkRows;
+
+    /**
+     * Creates an empty grid of the given size in cells.
+     */
+    public CollisionGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new long[(width * height + 63) >>> 6];
+        this.chunkCols = (width + (1 << CHUNK_SHIFT) - 1) >> CHUNK_SHIFT;
+        this.chunkRows = (height + (1 << CHUNK_SHIFT) - 1) >> CHUNK_SHIFT;
+        this.chunkCounts = new int[chunkCols * chunkRows];
+    }
+
+    /**
+     * Returns whether the cell is solid; cells outside the grid are open.
+     */
+    public boolean isSolid(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) return false;
+        int index = row * width + col;
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Marks a cell as solid or open, keeping the chunk summary in sync.
+     */
+    public void setSolid(int row, int col, boolean solid) {
+        if (row < 0 || row >= height || col < 0 || col >= width) return;
+        if (isSolid(row, col) == solid) return;
+
+        int index = row * width + col;
+        int chunk = (row >> CHUNK_SHIFT) * chunkCols + (col >> CHUNK_SHIFT);
+        if (solid) {
+            bits[index >>> 6] |= 1L << index;
+            chunkCounts[chunk]++;
+        } else {
+            bits[index >>> 6] &= ~(1L << index);
+            chunkCounts[chunk]--;
+        }
+    }
+
+    /**
+     * Returns whether any cell in the inclusive cell range is solid.
+     */
+    public boolean anySolid(int startRow, int startCol, int endRow, int endCol) {
+        startRow = Math.max(0, startRow);
+        startCol = Math.max(0, startCol);
+        endRow = Math.min(height - 1, endRow);
+        endCol = Math.min(width - 1, endCol);
+        if (startRow > endRow || startCol > endCol) return false;
+
+        for (int chunkRow = startRow >> CHUNK_SHIFT; chunkRow <= endRow >> CHUNK_SHIFT; chunkRow++) {
+            int rowFrom = Math.max(startRow, chunkRow << CHUNK_SHIFT);
+            int rowTo = Math.min(endRow, ((chunkRow + 1) << CHUNK_SHIFT) - 1);
+
+            for (int chunkCol = startCol >> CHUNK_SHIFT; chunkCol <= endCol >> CHUNK_SHIFT; chunkCol++) {
+                if (chunkCounts[chunkRow * chunkCols + chunkCol] == 0) continue;  // Open chunk
+
+                int colFrom = Math.max(startCol, chunkCol << CHUNK_SHIFT);
+                int colTo = Math.min(endCol, ((chunkCol + 1) << CHUNK_SHIFT) - 1);
+                for (int row = rowFrom; row <= rowTo; row++) {
+                    if (anyBit(row * width + colFrom, row * width + colTo)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Test an inclusive run of bits a word at a time
+    private boolean anyBit(int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (to & 63));
+
+        if (firstWord == lastWord) {
+            return (bits[firstWord] & firstMask & lastMask) != 0;
+        }
+        if ((bits[firstWord] & firstMask) != 0) return true;
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            if (bits[w] != 0) return true;
+        }
+        return (bits[lastWord] & lastMask) != 0;
+    }
+
+    // Getters
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
@@ -2,25 +2,20 @@ import processing.core.PApplet;
 import processing.core.PImage;
 
 /**
- * Enemy class for handling enemies in the game with movement, animation, and collision detection.
+ * Enemy type shared by every enemy in an {@link EnemyPool}: sprites, animation timing
+ * and collision box geometry. Per-enemy state lives in the pool's parallel arrays.
  */
 public class Enemy {
     private PApplet p;
-    private PImage[] sprites;
-    private PImage[] deathSprites;
-
-    // Position and movement
-    private float x, y, speed;
-    private int direction = 1; // 1 = right, -1 = left
-    private int minX, maxX;
+    private ScaledFrames sprites;
+    private ScaledFrames deathSprites;
 
     // Sprite information
     private int tileWidth, tileHeight;
+    private int frameCount, deathFrameCount;
     private int scaleFactor;
 
     // Animation
-    private int frame = 0;
-    private int animationCounter = 0;
     private int animationSpeed = 10;
 
     // Collision box
@@ -28,150 +23,111 @@ public class Enemy {
     private int sideOffsetY = 60;
     private int sideWidth, sideHeight;
 
-    // State flags
-    private boolean isActive = true;
-    public boolean isDying = false;
-    private int deathFrame = 0;
-
     /**
-     * Creates a new enemy with specified sprites and movement parameters.
+     * Creates a new enemy type from its idle and death spritesheets.
      */
-    public Enemy(PApplet p, PImage spritesheet, PImage deathSpritesheet, float startX, float startY,
-                 float speed, int cols, int rows, int minX, int maxX, int scaleFactor) {
+    public Enemy(PApplet p, PImage spritesheet, PImage deathSpritesheet, int cols, int rows, int scaleFactor) {
         this.p = p;
-        this.x = startX;
-        this.y = startY;
-        this.speed = speed;
-        this.minX = minX;
-        this.maxX = maxX;
         this.scaleFactor = scaleFactor;
 
         // Regular enemy spritesheet
         this.tileWidth = spritesheet.width / cols;
         this.tileHeight = spritesheet.height / rows;
-        this.sprites = new PImage[cols * rows];
+        PImage[] frames = new PImage[cols * rows];
 
         // Extract frames for regular spritesheet
         for (int j = 0; j < rows; j++) {
             for (int i = 0; i < cols; i++) {
-                sprites[i + j * cols] = spritesheet.get(i * tileWidth, j * tileHeight, tileWidth, tileHeight);
+                frames[i + j * cols] = spritesheet.get(i * tileWidth, j * tileHeight, tileWidth, tileHeight);
             }
         }
+        this.sprites = new ScaledFrames(p, frames, scaleFactor);
+        this.frameCount = frames.length;
 
         // Death animation spritesheet
         int deathCols = 1;
         int deathRows = 6;
-        this.deathSprites = new PImage[deathCols * deathRows];
+        PImage[] deathFrames = new PImage[deathCols * deathRows];
 
         // Extract frames for death animation
         for (int j = 0; j < deathRows; j++) {
             for (int i = 0; i < deathCols; i++) {
-                deathSprites[i + j * deathCols] = deathSpritesheet.get(i * tileWidth, j * tileHeight, tileWidth, tileHeight);
+                deathFrames[i + j * deathCols] = deathSpritesheet.get(i * tileWidth, j * tileHeight, tileWidth, tileHeight);
             }
         }
+        this.deathSprites = new ScaledFrames(p, deathFrames, scaleFactor);
+        this.deathFrameCount = deathFrames.length;
 
-        // Set collision box sizes
-        sideWidth = tileWidth * scaleFactor - 2 * sideOffsetX;
-        sideHeight = tileHeight * scaleFactor - 2 * sideOffsetY;
+        updateCollisionBox();
     }
 
     /**
-     * Draws the enemy's collision box for debugging.
+     * Creates a headless enemy type with sprite geometry and frame counts but no images.
      */
-    private void drawCollisionBox() {
-        if (isActive) {
-            float offsetX = sideOffsetX;
-            float offsetY = sideOffsetY;
-            float boxWidth = sideWidth;
-            float boxHeight = sideHeight;
-            p.fill(255, 0, 0, 100);
-            p.noStroke();
-            p.rect(x + offsetX, y + offsetY, boxWidth, boxHeight);
-            p.noFill();
-            p.stroke(0);
-        }
+    public Enemy(int tileWidth, int tileHeight, int frameCount, int deathFrameCount, int scaleFactor) {
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.frameCount = frameCount;
+        this.deathFrameCount = deathFrameCount;
+        this.scaleFactor = scaleFactor;
+        updateCollisionBox();
     }
 
     /**
-     * Updates the enemy's position and animation state.
+     * Changes the display scale, rebuilding the scaled sprite frames and collision box.
      */
-    public void update() {
-        if (!isActive) return;
-
-        if (isDying) {
-            // Handle death animation
-            deathFrame++;
-            if (deathFrame >= deathSprites.length) {
-                isActive = false;
-                return;
-            }
-        } else {
-            // Move the enemy
-            x += speed * direction;
-
-            // Reverse direction when reaching bounds
-            if (x <= minX || x >= maxX) {
-                direction *= -1;
-            }
-
-            // Animate regular enemy sprites
-            animationCounter++;
-            if (animationCounter >= animationSpeed) {
-                animationCounter = 0;
-                frame = (frame + 1) % sprites.length;
-            }
+    public void setScaleFactor(int scaleFactor) {
+        this.scaleFactor = scaleFactor;
+        if (sprites != null) {
+            sprites.setScaleFactor(scaleFactor);
+            deathSprites.setScaleFactor(scaleFactor);
         }
+        updateCollisionBox();
     }
 
     /**
-     * Checks if the death animation has completed.
+     * Sets collision box sizes for the current scale.
      */
-    public boolean isDeathAnimationComplete() {
-        return isDying && deathFrame >= deathSprites.length - 1;
+    private void updateCollisionBox() {
+        sideWidth = tileWidth * scaleFactor - 2 * sideOffsetX;
+        sideHeight = tileHeight * scaleFactor - 2 * sideOffsetY;
     }
 
     /**
-     * Draws the enemy with the appropriate animation frame.
+     * Draws a collision box for debugging.
      */
-    public void draw() {
-        if (isActive) {
-            if (isDying) {
-                // Draw death animation
-                p.image(deathSprites[deathFrame], x, y, tileWidth * scaleFactor, tileHeight * scaleFactor);
-            } else {
-                // Draw regular animation
-                p.image(sprites[frame], x, y, tileWidth * scaleFactor, tileHeight * scaleFactor);
-            }
-
-            // Debug: uncomment to show collision box
-            // drawCollisionBox();
-        }
+    public void drawCollisionBox(float x, float y) {
+        p.fill(255, 0, 0, 100);
+        p.noStroke();
+        p.rect(x + sideOffsetX, y + sideOffsetY, sideWidth, sideHeight);
+        p.noFill();
+        p.stroke(0);
     }
 
     /**
-     * Checks for collision with the player and starts death animation if collision occurs.
+     * Draws an enemy with the appropriate animation frame.
      */
-    public boolean checkCollision(float playerX, float playerY, float playerWidth, float playerHeight) {
-        if (isActive && !isDying) {
-            if (playerX + playerWidth > x + sideOffsetX &&
-                    playerX < x + sideWidth + sideOffsetX &&
-                    playerY + playerHeight > y + sideOffsetY &&
-                    playerY < y + sideHeight + sideOffsetY) {
-                // Collision detected, start death animation
-                isDying = true;
-                deathFrame = 0;
-                return true;
-            }
+    public void draw(float x, float y, int frame, boolean isDying, int deathFrame) {
+        if (isDying) {
+            // Draw death animation
+            p.image(deathSprites.get(deathFrame), x, y);
+        } else {
+            // Draw regular animation
+            p.image(sprites.get(frame), x, y);
         }
-        return false;
-    }
 
-    // Getters
-    public float getX() {
-        return x;
+        // Debug: uncomment to show collision box
+        // drawCollisionBox(x, y);
     }
 
-    public float getY() {
-        return y;
-    }
-}
\ No newline at end of file
+    // Getters
+    public int getFrameCount() { return frameCount; }
+    public int getDeathFrameCount() { return deathFrameCount; }
+    public int getAnimationSpeed() { return animationSpeed; }
+    public int getSpriteWidth() { return tileWidth * scaleFactor; }
+    public int getSpriteHeight() { return tileHeight * scaleFactor; }
+    public int getSideOffsetX() { return sideOffsetX; }
+    public int getSideOffsetY() { return sideOffsetY; }
+    public int getSideWidth() { return sideWidth; }
+    public int getSideHeight() { return sideHeight; }
+}
@@ -0,0 +1,713 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Structure-of-arrays storage for all enemies of one {@link Enemy} type.
+ * Each enemy is an index into parallel primitive arrays; removal swaps the last
+ * enemy into the freed slot, so the update loop stays dense and allocation-free.
+ */
+public class EnemyPool {
+    // Behaviours; an enemy patrols until the player comes into sight, then switches to its reaction
+    public static final byte PATROL = 0;
+    public static final byte CHASE = 1;
+    public static final byte FLEE = 2;
+    public static final byte WANDER = 3;
+
+    // Distances (world pixels) at which the player is noticed and lost again
+    private static final float SIGHT_RADIUS = 320;
+    private static final float LOSE_RADIUS = 480;
+
+    // State flag bits
+    private static final byte ACTIVE = 1;
+    private static final byte DYING = 2;
+
+    // Enemies per simulation task, and the default pool size below which the step stays single-threaded
+    private static final int CHUNK_SIZE = 1024;
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    // Simulation level of detail relative to the camera view
+    private static final int NEAR_INTERVAL = 4;  // Ticks between updates of nearby off-screen enemies
+    private static final int TIER_ON_SCREEN = 0;
+    private static final int TIER_NEAR = 1;
+    private static final int TIER_DORMANT = 2;
+
+    private Enemy type;
+    private SpatialHash spatialHash;
+    private ParticleSystem particles;
+    private int size = 0;
+
+    // Position and movement
+    private float[] x, y, speed;
+    private float[] previousX, previousY;  // Position before the last tick, for interpolated drawing
+    private int[] direction;  // 1 = right, -1 = left
+    private int[] minX, maxX;
+
+    // AI state, written by decide() and read by the movement step
+    private byte[] reaction;
+    private byte[] behaviour;
+    private float[] headingX, headingY;
+    private GameMap gameMap;
+    private long randomState = 0x9E3779B97F4A7C15L;
+
+    // Animation and state
+    private int[] frame;
+    private int[] animationCounter;
+    private int[] deathFrame;
+    private byte[] flags;
+    private int[] lastTick;
+
+    // Camera view used for level of detail; without one every enemy is simulated every tick
+    private boolean hasView = false;
+    private float viewX, viewY, viewWidth, viewHeight;
+    private int tick = 0;
+
+    // Per-chunk lists of enemies to remove after a simulation step
+    private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+    private int parallelThreshold = PARALLEL_THRESHOLD;
+    private IntList[] chunkRemovals = new IntList[0];
+    private IntList playerContacts = new IntList();
+
+    /**
+     * Creates an empty pool with room for the given number of enemies before growing.
+     */
+    public EnemyPool(Enemy type, int initialCapacity) {
+        this.type = type;
+        int capacity = Math.max(1, initialCapacity);
+        x = new float[capacity];
+        y = new float[capacity];
+        previousX = new float[capacity];
+        previousY = new float[capacity];
+        speed = new float[capacity];
+        direction = new int[capacity];
+        minX = new int[capacity];
+        maxX = new int[capacity];
+        frame = new int[capacity];
+        animationCounter = new int[capacity];
+        deathFrame = new int[capacity];
+        flags = new byte[capacity];
+        lastTick = new int[capacity];
+        reaction = new byte[capacity];
+        behaviour = new byte[capacity];
+        headingX = new float[capacity];
+        headingY = new float[capacity];
+    }
+
+    /**
+     * Adds a patrolling enemy that ignores the player and returns its current index.
+     */
+    public int add(float startX, float startY, float speed, int minX, int maxX) {
+        return add(startX, startY, speed, minX, maxX, PATROL);
+    }
+
+    /**
+     * Adds a patrolling enemy with the behaviour it switches to on seeing the player.
+     */
+    public int add(float startX, float startY, float speed, int minX, int maxX, byte reaction) {
+        if (size == x.length) {
+            grow(size * 2);
+        }
+
+        int i = size++;
+        this.x[i] = startX;
+        this.y[i] = startY;
+        this.previousX[i] = startX;
+        this.previousY[i] = startY;
+        this.speed[i] = speed;
+        this.direction[i] = 1;
+        this.minX[i] = minX;
+        this.maxX[i] = maxX;
+        this.frame[i] = 0;
+        this.animationCounter[i] = 0;
+        this.deathFrame[i] = 0;
+        this.flags[i] = ACTIVE;
+        this.lastTick[i] = tick;
+        this.reaction[i] = reaction;
+        this.behaviour[i] = PATROL;
+        this.headingX[i] = 0;
+        this.headingY[i] = 0;
+
+        if (spatialHash != null) {
+            spatialHash.insert(i, getHitboxX(i), getHitboxY(i));
+        }
+        return i;
+    }
+
+    /**
+     * Removes an enemy in O(1) by moving the last enemy into its slot.
+     */
+    public void remove(int i) {
+        int last = size - 1;
+        if (spatialHash != null) {
+            spatialHash.remove(i);
+        }
+
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            previousX[i] = previousX[last];
+            previousY[i] = previousY[last];
+            speed[i] = speed[last];
+            direction[i] = direction[last];
+            minX[i] = minX[last];
+            maxX[i] = maxX[last];
+            frame[i] = frame[last];
+            animationCounter[i] = animationCounter[last];
+            deathFrame[i] = deathFrame[last];
+            flags[i] = flags[last];
+            lastTick[i] = lastTick[last];
+            reaction[i] = reaction[last];
+            behaviour[i] = behaviour[last];
+            headingX[i] = headingX[last];
+            headingY[i] = headingY[last];
+
+            if (spatialHash != null) {
+                spatialHash.remove(last);
+                spatialHash.insert(i, getHitboxX(i), getHitboxY(i));
+            }
+        }
+        size--;
+    }
+
+    public void clear() {
+        size = 0;
+        if (spatialHash != null) {
+            spatialHash.clear();
+        }
+    }
+
+    /**
+     * Attaches a broadphase and files every current enemy in it.
+     */
+    public void setSpatialHash(SpatialHash spatialHash) {
+        this.spatialHash = spatialHash;
+        if (spatialHash != null) {
+            spatialHash.clear();
+            for (int i = 0; i < size; i++) {
+                spatialHash.insert(i, getHitboxX(i), getHitboxY(i));
+            }
+        }
+    }
+
+    /**
+     * Sets the camera view (world pixels) that decides each enemy's simulation tier.
+     * Enemies on screen update every tick; those within one view size of it update every
+     * few ticks and catch up analytically; anything further away stays dormant.
+     */
+    public void setSimulationView(float viewX, float viewY, float viewWidth, float viewHeight) {
+        this.hasView = true;
+        this.viewX = viewX;
+        this.viewY = viewY;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    public void clearSimulationView() {
+        hasView = false;
+    }
+
+    /**
+     * Runs one simulation step for every enemy: movement, animation and the overlap test
+     * against the player's box. Large pools are split across a fork-join pool; the player
+     * test, removals and broadphase updates are applied afterwards in index order, so the
+     * result is identical to the single-threaded path.
+     */
+    public void updateAll(float playerX, float playerY, float playerWidth, float playerHeight) {
+        tick++;
+        System.arraycopy(x, 0, previousX, 0, size);
+        System.arraycopy(y, 0, previousY, 0, size);
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ensureChunkLists(chunks);
+
+        if (size < parallelThreshold) {
+            for (int c = 0; c < chunks; c++) {
+                stepChunk(c);
+            }
+        } else {
+            forkJoinPool.invoke(new StepTask(0, chunks));
+        }
+
+        // Refile moved enemies in a fixed order so broadphase query order is deterministic
+        if (spatialHash != null) {
+            for (int i = 0; i < size; i++) {
+                spatialHash.update(i, getHitboxX(i), getHitboxY(i));
+            }
+        }
+
+        killTouching(playerX, playerY, playerWidth, playerHeight);
+
+        // Remove from the highest index down so each swap only moves an enemy that stays
+        for (int c = chunks - 1; c >= 0; c--) {
+            IntList removals = chunkRemovals[c];
+            for (int k = removals.size() - 1; k >= 0; k--) {
+                remove(removals.get(k));
+            }
+        }
+    }
+
+    // Simulate one contiguous range of enemies, recording which ones finished dying
+    private void stepChunk(int chunk) {
+        IntList removals = chunkRemovals[chunk];
+        removals.clear();
+
+        int end = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+        for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+            int tier = tierOf(i);
+            int elapsed = tick - lastTick[i];
+
+            // Only the living are frozen or thinned out; a dying enemy must finish so it gets removed
+            if (flags[i] == ACTIVE) {
+                if (tier == TIER_DORMANT) {
+                    lastTick[i] = tick;  // Frozen in place, nothing to catch up on wake
+                    continue;
+                }
+                if (tier == TIER_NEAR && elapsed < NEAR_INTERVAL) continue;
+            }
+
+            advance(i, elapsed);
+            lastTick[i] = tick;
+
+            if (isDeathAnimationComplete(i)) {
+                removals.add(i);
+            }
+        }
+    }
+
+    // Kill the living enemies overlapping the player's box, testing only broadphase candidates
+    private void killTouching(float playerX, float playerY, float playerWidth, float playerHeight) {
+        if (spatialHash == null) {
+            for (int i = 0; i < size; i++) {
+                checkCollision(i, playerX, playerY, playerWidth, playerHeight);
+            }
+            return;
+        }
+
+        spatialHash.query(playerX, playerY, playerWidth, playerHeight, playerContacts);
+        for (int k = 0; k < playerContacts.size(); k++) {
+            checkCollision(playerContacts.get(k), playerX, playerY, playerWidth, playerHeight);
+        }
+    }
+
+    // Classify an enemy's sprite box against the camera view
+    private int tierOf(int i) {
+        if (!hasView) return TIER_ON_SCREEN;
+
+        float spriteWidth = type.getSpriteWidth();
+        float spriteHeight = type.getSpriteHeight();
+        if (x[i] + spriteWidth > viewX && x[i] < viewX + viewWidth &&
+                y[i] + spriteHeight > viewY && y[i] < viewY + viewHeight) {
+            return TIER_ON_SCREEN;
+        }
+        if (x[i] + spriteWidth > viewX - viewWidth && x[i] < viewX + 2 * viewWidth &&
+                y[i] + spriteHeight > viewY - viewHeight && y[i] < viewY + 2 * viewHeight) {
+            return TIER_NEAR;
+        }
+        return TIER_DORMANT;
+    }
+
+    private void ensureChunkLists(int chunks) {
+        if (chunkRemovals.length < chunks) {
+            int oldLength = chunkRemovals.length;
+            chunkRemovals = Arrays.copyOf(chunkRemovals, chunks);
+            for (int c = oldLength; c < chunks; c++) {
+                chunkRemovals[c] = new IntList();
+            }
+        }
+    }
+
+    /**
+     * Splits a range of chunks in half until a single chunk is left to simulate.
+     */
+    private class StepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstChunk, lastChunk;
+
+        StepTask(int firstChunk, int lastChunk) {
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk == 1) {
+                stepChunk(firstChunk);
+                return;
+            }
+            int middle = (firstChunk + lastChunk) >>> 1;
+            invokeAll(new StepTask(firstChunk, middle), new StepTask(middle, lastChunk));
+        }
+    }
+
+    /**
+     * Updates one enemy's position, animation state and broadphase bucket.
+     */
+    public void update(int i) {
+        previousX[i] = x[i];
+        previousY[i] = y[i];
+        advance(i, 1);
+        lastTick[i] = tick;
+        if (spatialHash != null) {
+            spatialHash.update(i, getHitboxX(i), getHitboxY(i));
+        }
+    }
+
+    // Move and animate one enemy by some ticks; touches only slot i so it is safe to run concurrently
+    private void advance(int i, int ticks) {
+        byte state = flags[i];
+        if ((state & ACTIVE) == 0) return;
+
+        if ((state & DYING) != 0) {
+            // Handle death animation
+            deathFrame[i] += ticks;
+            if (deathFrame[i] >= type.getDeathFrameCount()) {
+                flags[i] = (byte) (state & ~ACTIVE);
+            }
+            return;
+        }
+
+        if (behaviour[i] != PATROL) {
+            steer(i, ticks);
+        } else if (gameMap == null && ticks > 1) {
+            catchUpPatrol(i, ticks);
+        } else {
+            for (int t = 0; t < ticks; t++) {
+                patrolStep(i);
+            }
+        }
+
+        // Animate regular enemy sprites
+        animationCounter[i] += ticks;
+        if (animationCounter[i] >= type.getAnimationSpeed()) {
+            frame[i] = (frame[i] + animationCounter[i] / type.getAnimationSpeed()) % type.getFrameCount();
+            animationCounter[i] %= type.getAnimationSpeed();
+        }
+    }
+
+    // Walk one tick toward the patrol bound ahead, turning around at the bound or at a wall. An
+    // enemy that stopped chasing may be far outside its range, with walls on the way back.
+    private void patrolStep(int i) {
+        float step = speed[i] * direction[i];
+        if (gameMap != null && gameMap.checkCollision(getHitboxX(i) + step, getHitboxY(i),
+                type.getSideWidth(), type.getSideHeight())) {
+            direction[i] *= -1;
+            return;
+        }
+
+        x[i] += step;
+        if ((x[i] <= minX[i] && direction[i] < 0) || (x[i] >= maxX[i] && direction[i] > 0)) {
+            direction[i] *= -1;
+        }
+    }
+
+    // Advance a patrol by many ticks without a map, jumping straight from one bound reversal to the next
+    private void catchUpPatrol(int i, int ticks) {
+        while (ticks > 0) {
+            float step = speed[i] * direction[i];
+            if (step == 0) return;
+
+            // Ticks until the position reaches the bound it is heading for
+            float bound = step > 0 ? maxX[i] : minX[i];
+            int toBound = Math.max(1, (int) Math.ceil((bound - x[i]) / step));
+
+            if (toBound > ticks) {
+                x[i] += step * ticks;
+                return;
+            }
+            x[i] += step * toBound;
+            direction[i] *= -1;
+            ticks -= toBound;
+        }
+    }
+
+    // Move along the current heading, sliding along walls one axis at a time. Caught-up ticks
+    // are stepped one at a time so a long jump cannot pass through a thin wall.
+    private void steer(int i, int ticks) {
+        float dx = headingX[i] * speed[i];
+        float dy = headingY[i] * speed[i];
+        float width = type.getSideWidth();
+        float height = type.getSideHeight();
+
+        for (int t = 0; t < ticks; t++) {
+            if (gameMap == null || !gameMap.checkCollision(getHitboxX(i) + dx, getHitboxY(i), width, height)) {
+                x[i] += dx;
+            }
+            if (gameMap == null || !gameMap.checkCollision(getHitboxX(i), getHitboxY(i) + dy, width, height)) {
+                y[i] += dy;
+            }
+        }
+    }
+
+    /**
+     * Makes one AI decision for an enemy: picks its behaviour from the distance to the
+     * player and updates its heading. Returns false if the enemy has nothing to decide.
+     */
+    public boolean decide(int i, float playerX, float playerY) {
+        if (reaction[i] == PATROL || flags[i] != ACTIVE) return false;
+
+        float centerX = x[i] + type.getSpriteWidth() / 2f;
+        float centerY = y[i] + type.getSpriteHeight() / 2f;
+        float dx = playerX - centerX;
+        float dy = playerY - centerY;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+
+        // Only notice a player that is close and not hidden behind walls
+        if (distance < SIGHT_RADIUS && (gameMap == null || gameMap.hasLineOfSight(centerX, centerY, playerX, playerY))) {
+            behaviour[i] = reaction[i];
+        } else if (distance > LOSE_RADIUS) {
+            behaviour[i] = PATROL;
+        }
+
+        switch (behaviour[i]) {
+            case CHASE:
+                chase(i, dx, dy, distance);
+                break;
+            case FLEE:
+                setHeading(i, -dx, -dy, distance);
+                break;
+            case WANDER:
+                // Occasionally turn to a new random direction
+                if ((headingX[i] == 0 && headingY[i] == 0) || nextRandom() % 8 == 0) {
+                    double angle = (nextRandom() & 0xffff) / 65536.0 * Math.PI * 2;
+                    headingX[i] = (float) Math.cos(angle);
+                    headingY[i] = (float) Math.sin(angle);
+                }
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    // Head for the next cell of the map's flow field, or straight at the player without one
+    private void chase(int i, float dx, float dy, float distance) {
+        FlowField field = gameMap != null ? gameMap.getFlowField() : null;
+        if (field != null) {
+            int cellWidth = gameMap.getScaledTileWidth();
+            int cellHeight = gameMap.getScaledTileHeight();
+            float centerX = getHitboxX(i) + type.getSideWidth() / 2f;
+            float centerY = getHitboxY(i) + type.getSideHeight() / 2f;
+
+            int next = field.nextCell((int) (centerY / cellHeight), (int) (centerX / cellWidth));
+            if (next >= 0) {
+                float toX = (next % field.getWidth() + 0.5f) * cellWidth - centerX;
+                float toY = (next / field.getWidth() + 0.5f) * cellHeight - centerY;
+                setHeading(i, toX, toY, (float) Math.sqrt(toX * toX + toY * toY));
+                return;
+            }
+        }
+        setHeading(i, dx, dy, distance);
+    }
+
+    private void setHeading(int i, float dx, float dy, float length) {
+        if (length > 0) {
+            headingX[i] = dx / length;
+            headingY[i] = dy / length;
+        }
+    }
+
+    // Seeded xorshift generator so wandering is reproducible
+    private int nextRandom() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState >>> 33);
+    }
+
+    /**
+     * Converts a behaviour name from map data ("patrol", "chase", "flee", "wander").
+     */
+    public static byte parseBehaviour(String name) {
+        switch (name.toLowerCase()) {
+            case "chase": return CHASE;
+            case "flee": return FLEE;
+            case "wander": return WANDER;
+            default: return PATROL;
+        }
+    }
+
+    /**
+     * Returns whether the enemy's collision box overlaps the given box.
+     */
+    public boolean overlaps(int i, float boxX, float boxY, float boxWidth, float boxHeight) {
+        float hitboxX = getHitboxX(i);
+        float hitboxY = getHitboxY(i);
+        return boxX + boxWidth > hitboxX &&
+                boxX < hitboxX + type.getSideWidth() &&
+                boxY + boxHeight > hitboxY &&
+                boxY < hitboxY + type.getSideHeight();
+    }
+
+    /**
+     * Checks for collision with the player and starts the death animation if collision occurs.
+     */
+    public boolean checkCollision(int i, float playerX, float playerY, float playerWidth, float playerHeight) {
+        if (flags[i] == ACTIVE && overlaps(i, playerX, playerY, playerWidth, playerHeight)) {
+            kill(i);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Starts the death animation of a living enemy.
+     */
+    public void startDying(int i) {
+        flags[i] |= DYING;
+        deathFrame[i] = 0;
+        lastTick[i] = tick;  // The animation counts from the kill, not from the last near-tier update
+    }
+
+    /**
+     * Starts the death animation and emits the matching particle effects.
+     */
+    public void kill(int i) {
+        startDying(i);
+        if (particles != null) {
+            emitDeath(i);
+        }
+    }
+
+    private void emitDeath(int i) {
+        float centerX = getHitboxX(i) + type.getSideWidth() / 2f;
+        float centerY = getHitboxY(i) + type.getSideHeight() / 2f;
+        particles.debris(centerX, centerY);
+        particles.dust(centerX, centerY);
+    }
+
+    /**
+     * Checks if the death animation has completed.
+     */
+    public boolean isDeathAnimationComplete(int i) {
+        return (flags[i] & DYING) != 0 && deathFrame[i] >= type.getDeathFrameCount() - 1;
+    }
+
+    /**
+     * Draws one enemy with the appropriate animation frame.
+     */
+    public void draw(int i) {
+        draw(i, 1);
+    }
+
+    /**
+     * Draws one enemy between its previous and current tick positions;
+     * alpha is the fraction of a tick elapsed since the last update.
+     */
+    public void draw(int i, float alpha) {
+        if ((flags[i] & ACTIVE) != 0) {
+            float drawX = previousX[i] + (x[i] - previousX[i]) * alpha;
+            float drawY = previousY[i] + (y[i] - previousY[i]) * alpha;
+            type.draw(drawX, drawY, frame[i], isDying(i), deathFrame[i]);
+        }
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        frame = Arrays.copyOf(frame, capacity);
+        animationCounter = Arrays.copyOf(animationCounter, capacity);
+        deathFrame = Arrays.copyOf(deathFrame, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        lastTick = Arrays.copyOf(lastTick, capacity);
+        reaction = Arrays.copyOf(reaction, capacity);
+        behaviour = Arrays.copyOf(behaviour, capacity);
+        headingX = Arrays.copyOf(headingX, capacity);
+        headingY = Arrays.copyOf(headingY, capacity);
+    }
+
+    /**
+     * Bytes needed by writeState() for the current pool.
+     */
+    public int stateSize() {
+        return 16 + size * 51;
+    }
+
+    /**
+     * Writes every enemy's full simulation state at the buffer's position.
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putInt(size);
+        buffer.putInt(tick);
+        buffer.putLong(randomState);
+        for (int i = 0; i < size; i++) {
+            buffer.putFloat(x[i]).putFloat(y[i]).putFloat(speed[i]);
+            buffer.putInt(direction[i]).putInt(minX[i]).putInt(maxX[i]);
+            buffer.putInt(frame[i]).putInt(animationCounter[i]).putInt(deathFrame[i]).putInt(lastTick[i]);
+            buffer.put(flags[i]).put(reaction[i]).put(behaviour[i]);
+            buffer.putFloat(headingX[i]).putFloat(headingY[i]);
+        }
+    }
+
+    /**
+     * Replaces the pool with state written by writeState() and refiles the broadphase.
+     */
+    public void readState(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count > x.length) {
+            grow(count);
+        }
+        size = count;
+        tick = buffer.getInt();
+        randomState = buffer.getLong();
+        for (int i = 0; i < size; i++) {
+            x[i] = buffer.getFloat();
+            y[i] = buffer.getFloat();
+            speed[i] = buffer.getFloat();
+            direction[i] = buffer.getInt();
+            minX[i] = buffer.getInt();
+            maxX[i] = buffer.getInt();
+            frame[i] = buffer.getInt();
+            animationCounter[i] = buffer.getInt();
+            deathFrame[i] = buffer.getInt();
+            lastTick[i] = buffer.getInt();
+            flags[i] = buffer.get();
+            reaction[i] = buffer.get();
+            behaviour[i] = buffer.get();
+            headingX[i] = buffer.getFloat();
+            headingY[i] = buffer.getFloat();
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+        }
+        setSpatialHash(spatialHash);
+    }
+
+    // Broadphase query over enemy collision boxes; without a spatial hash every enemy is a candidate
+    public void query(float boxX, float boxY, float boxWidth, float boxHeight, IntList result) {
+        if (spatialHash == null) {
+            result.clear();
+            for (int i = 0; i < size; i++) {
+                result.add(i);
+            }
+            return;
+        }
+        spatialHash.query(boxX, boxY, boxWidth, boxHeight, result);
+    }
+
+    // Getters
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public Enemy getType() { return type; }
+    public byte getBehaviour(int i) { return behaviour[i]; }
+    public void setGameMap(GameMap gameMap) { this.gameMap = gameMap; }
+    public void setParticles(ParticleSystem particles) { this.particles = particles; }
+    public void setParallelThreshold(int parallelThreshold) { this.parallelThreshold = parallelThreshold; }
+    public float getX(int i) { return x[i]; }
+    public float getY(int i) { return y[i]; }
+    public float getPreviousX(int i) { return previousX[i]; }
+    public float getPreviousY(int i) { return previousY[i]; }
+    public float getHitboxX(int i) { return x[i] + type.getSideOffsetX(); }
+    public float getHitboxY(int i) { return y[i] + type.getSideOffsetY(); }
+    public int getDirection(int i) { return direction[i]; }
+    public int getFrame(int i) { return frame[i]; }
+    public int getDeathFrame(int i) { return deathFrame[i]; }
+    public boolean isActive(int i) { return (flags[i] & ACTIVE) != 0; }
+    public boolean isDying(int i) { return (flags[i] & DYING) != 0; }
+    public boolean isAlive(int i) { return flags[i] == ACTIVE; }
+}
@@ -0,0 +1,216 @@
+import java.util.Arrays;
+
+/**
+ * Breadth-first distance map over a grid of path-blocking cells toward a single target cell.
+ * Every walkable cell stores the neighbouring cell one step closer to the target, so
+ * any number of chasers can follow the field with one array lookup each.
+ */
+public class FlowField {
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int MAX_SOURCE_SEARCH = 3;  // Rings searched for an open cell near a blocked target
+
+    private CollisionGrid grid;
+    private int width, height;
+    private int[] distance;
+    private int[] next;
+    private int target = -1;
+    private int source = -1;  // Cell the search starts from: the target, or the nearest open cell to it
+
+    // Reused work lists
+    private IntList queue = new IntList(256);
+    private IntList affected = new IntList(64);
+    private boolean[] marked;
+
+    /**
+     * Creates a field over the grid with no target yet.
+     */
+    public FlowField(CollisionGrid grid) {
+        this.grid = grid;
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.distance = new int[width * height];
+        this.next = new int[width * height];
+        this.marked = new boolean[width * height];
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(next, -1);
+    }
+
+    /**
+     * Moves the target, rebuilding the whole field only if the target cell changed.
+     */
+    public void setTarget(int row, int col) {
+        row = Math.max(0, Math.min(height - 1, row));
+        col = Math.max(0, Math.min(width - 1, col));
+        int cell = row * width + col;
+        if (cell == target) return;
+
+        target = cell;
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the whole field for the current target, after many cells changed at once.
+     */
+    public void refresh() {
+        if (target >= 0) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        Arrays.fill(distance, UNREACHABLE);
+        Arrays.fill(next, -1);
+        queue.clear();
+        source = nearestOpenCell(target / width, target % width);
+        if (source < 0) return;
+
+        distance[source] = 0;
+        queue.add(source);
+        relax();
+    }
+
+    // The cell itself if it is open, otherwise the closest open cell in growing rings around it
+    private int nearestOpenCell(int row, int col) {
+        if (!grid.isSolid(row, col)) return row * width + col;
+
+        for (int radius = 1; radius <= MAX_SOURCE_SEARCH; radius++) {
+            int best = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int r = Math.max(0, row - radius); r <= Math.min(height - 1, row + radius); r++) {
+                for (int c = Math.max(0, col - radius); c <= Math.min(width - 1, col + radius); c++) {
+                    if (Math.max(Math.abs(r - row), Math.abs(c - col)) != radius || grid.isSolid(r, c)) continue;
+
+                    int d = (r - row) * (r - row) + (c - col) * (c - col);
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        best = r * width + c;
+                    }
+                }
+            }
+            if (best >= 0) return best;
+        }
+        return -1;
+    }
+
+    /**
+     * Updates the field after a cell changed between walkable and solid, touching only
+     * the cells whose distances actually change.
+     */
+    public void onCellChanged(int row, int col) {
+        if (target < 0) return;
+        int cell = row * width + col;
+        boolean nearBlockedTarget = source != target &&
+                Math.abs(row - target / width) <= MAX_SOURCE_SEARCH && Math.abs(col - target % width) <= MAX_SOURCE_SEARCH;
+        if (cell == target || cell == source || nearBlockedTarget) {
+            rebuild();
+            return;
+        }
+
+        queue.clear();
+        if (grid.isSolid(row, col)) {
+            // Everything routed through this cell loses its distance and is re-seeded from the rest
+            collectDependents(cell);
+            for (int k = 0; k < affected.size(); k++) {
+                int c = affected.get(k);
+                distance[c] = UNREACHABLE;
+                next[c] = -1;
+                marked[c] = false;
+            }
+            for (int k = 0; k < affected.size(); k++) {
+                seedFromNeighbours(affected.get(k));
+            }
+        } else {
+            seedFromNeighbours(cell);
+        }
+        relax();
+    }
+
+    // Gather the cell and every cell whose path to the target passes through it
+    private void collectDependents(int cell) {
+        affected.clear();
+        affected.add(cell);
+        marked[cell] = true;
+
+        for (int k = 0; k < affected.size(); k++) {
+            int c = affected.get(k);
+            int row = c / width;
+            int col = c % width;
+            if (row > 0) collectIfDependent(c - width, c);
+            if (row < height - 1) collectIfDependent(c + width, c);
+            if (col > 0) collectIfDependent(c - 1, c);
+            if (col < width - 1) collectIfDependent(c + 1, c);
+        }
+    }
+
+    private void collectIfDependent(int neighbour, int cell) {
+        if (!marked[neighbour] && next[neighbour] == cell) {
+            marked[neighbour] = true;
+            affected.add(neighbour);
+        }
+    }
+
+    // Take the best distance offered by any neighbour and queue the cell for propagation
+    private void seedFromNeighbours(int cell) {
+        int row = cell / width;
+        int col = cell % width;
+        if (grid.isSolid(row, col)) return;
+
+        if (row > 0) offer(cell - width, cell);
+        if (row < height - 1) offer(cell + width, cell);
+        if (col > 0) offer(cell - 1, cell);
+        if (col < width - 1) offer(cell + 1, cell);
+        if (distance[cell] != UNREACHABLE) {
+            queue.add(cell);
+        }
+    }
+
+    private void offer(int from, int cell) {
+        if (distance[from] != UNREACHABLE && distance[from] + 1 < distance[cell]) {
+            distance[cell] = distance[from] + 1;
+            next[cell] = from;
+        }
+    }
+
+    // Propagate shorter distances outward from the queued cells until nothing improves
+    private void relax() {
+        for (int k = 0; k < queue.size(); k++) {
+            int cell = queue.get(k);
+            int row = cell / width;
+            int col = cell % width;
+            if (row > 0) propagate(cell, cell - width);
+            if (row < height - 1) propagate(cell, cell + width);
+            if (col > 0) propagate(cell, cell - 1);
+            if (col < width - 1) propagate(cell, cell + 1);
+        }
+        queue.clear();
+    }
+
+    private void propagate(int from, int cell) {
+        if (distance[from] + 1 < distance[cell] && !grid.isSolid(cell / width, cell % width)) {
+            distance[cell] = distance[from] + 1;
+            next[cell] = from;
+            queue.add(cell);
+        }
+    }
+
+    /**
+     * Returns the index (row * width + col) of the next cell toward the target,
+     * or -1 if the cell is the target, blocked or cut off from it.
+     */
+    public int nextCell(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) return -1;
+        return next[row * width + col];
+    }
+
+    /**
+     * Returns the number of steps to the target, or -1 if unreachable.
+     */
+    public int distanceTo(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) return -1;
+        int d = distance[row * width + col];
+        return d == UNREACHABLE ? -1 : d;
+    }
+
+    public int getWidth() { return width; }
+    public int getSource() { return source; }
+}
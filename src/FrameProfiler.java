@@ -0,0 +1,155 @@
+import processing.core.PApplet;
+import processing.core.PFont;
+
+/**
+ * Times the phases of each frame (update, map layers, entities, editor) with nanoTime and
+ * aggregates them into fixed histograms and rolling averages, without allocating per frame.
+ * While disabled every call returns after a single field check. It can draw its rolling
+ * averages as an overlay and hand each frame's times to a {@link ProfileCsvExporter}.
+ */
+public class FrameProfiler {
+    // Phases
+    public static final int UPDATE = 0;
+    public static final int BACKGROUND = 1;
+    public static final int ENTITIES = 2;
+    public static final int FOREGROUND = 3;
+    public static final int EDITOR = 4;
+    public static final int PHASES = 5;
+    public static final String[] PHASE_NAMES = {"update", "background", "entities", "foreground", "editor"};
+
+    private static final int WINDOW = 60;              // Frames in the rolling average
+    private static final int OVERLAY_REFRESH = 30;     // Frames between overlay text updates
+
+    private PApplet p;
+    private boolean enabled = false;
+    private boolean overlayVisible = false;
+    private ProfileCsvExporter exporter;
+
+    // The frame in progress
+    private final long[] phaseStart = new long[PHASES];
+    private final long[] frameNanos = new long[PHASES];
+    private long frameStart = 0;
+    private long frameCount = 0;
+
+    // Whole-session histograms and the rolling window, one row per phase plus the whole frame
+    private final TimeHistogram[] histograms = new TimeHistogram[PHASES + 1];
+    private final long[][] window = new long[PHASES + 1][WINDOW];
+    private final long[] windowSum = new long[PHASES + 1];
+    private int windowPosition = 0;
+    private int windowCount = 0;
+
+    private final String[] overlayLines = new String[PHASES + 1];
+    private PFont font;
+
+    public FrameProfiler(PApplet p) {
+        this.p = p;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new TimeHistogram();
+        }
+    }
+
+    public void beginFrame() {
+        if (!enabled) return;
+        frameStart = System.nanoTime();
+    }
+
+    public void begin(int phase) {
+        if (!enabled) return;
+        phaseStart[phase] = System.nanoTime();
+    }
+
+    /**
+     * Ends a phase; a phase that runs several times in a frame (one update per tick) adds up.
+     */
+    public void end(int phase) {
+        if (!enabled) return;
+        frameNanos[phase] += System.nanoTime() - phaseStart[phase];
+    }
+
+    /**
+     * Folds the finished frame into the histograms and rolling averages and passes it to the exporter.
+     */
+    public void endFrame() {
+        if (!enabled) return;
+
+        long total = System.nanoTime() - frameStart;
+        for (int phase = 0; phase < PHASES; phase++) {
+            addSample(phase, frameNanos[phase]);
+        }
+        addSample(PHASES, total);
+        windowPosition = (windowPosition + 1) % WINDOW;
+        windowCount = Math.min(windowCount + 1, WINDOW);
+
+        if (exporter != null) {
+            exporter.offer(frameCount, frameNanos, total);
+        }
+        frameCount++;
+
+        for (int phase = 0; phase < PHASES; phase++) {
+            frameNanos[phase] = 0;
+        }
+    }
+
+    private void addSample(int row, long nanos) {
+        histograms[row].record(nanos);
+        windowSum[row] += nanos - window[row][windowPosition];
+        window[row][windowPosition] = nanos;
+    }
+
+    /**
+     * Draws the rolling averages and session p99 of each phase in the top left corner.
+     * The text is rebuilt every half second rather than every frame.
+     */
+    public void drawOverlay() {
+        if (!enabled || !overlayVisible) return;
+
+        if (font == null) {
+            font = p.createFont("Monospaced", 12);
+        }
+        if (overlayLines[0] == null || frameCount % OVERLAY_REFRESH == 0) {
+            for (int row = 0; row <= PHASES; row++) {
+                overlayLines[row] = String.format("%-11s %6.2f ms  p99 %6.2f ms",
+                        row < PHASES ? PHASE_NAMES[row] : "frame",
+                        getAverageNanos(row) / 1e6, histograms[row].percentileNanos(99) / 1e6);
+            }
+        }
+
+        p.pushStyle();
+        p.noStroke();
+        p.fill(0, 180);
+        p.rect(8, 8, 280, 16 * (PHASES + 1) + 12);
+        p.fill(255);
+        p.textFont(font);
+        p.textAlign(PApplet.LEFT, PApplet.TOP);
+        for (int row = 0; row <= PHASES; row++) {
+            p.text(overlayLines[row], 16, 14 + row * 16);
+        }
+        p.popStyle();
+    }
+
+    /**
+     * Rolling average over the last frames for a phase, or for the whole frame with PHASES.
+     */
+    public long getAverageNanos(int row) {
+        return windowCount == 0 ? 0 : windowSum[row] / windowCount;
+    }
+
+    /**
+     * Shows or hides the overlay; timing runs while either the overlay or an exporter needs it.
+     */
+    public void setOverlayVisible(boolean overlayVisible) {
+        this.overlayVisible = overlayVisible;
+        enabled = overlayVisible || exporter != null;
+    }
+
+    public void setExporter(ProfileCsvExporter exporter) {
+        this.exporter = exporter;
+        enabled = overlayVisible || exporter != null;
+    }
+
+    // Getters
+    public boolean isEnabled() { return enabled; }
+    public boolean isOverlayVisible() { return overlayVisible; }
+    public long getFrameCount() { return frameCount; }
+    public TimeHistogram getHistogram(int row) { return histograms[row]; }
+}
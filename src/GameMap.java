@@ -2,26 +2,108 @@ import processing.core.PApplet;
 import processing.core.PImage;
 import processing.data.JSONArray;
 import processing.data.JSONObject;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class GameMap {
-    private PApplet p;
+    // Available backends for drawing map layers
+    public enum RenderMode {
+        DIRECT,    // One image() call per visible tile
+        CHUNKED,   // Pre-rendered chunk images
+        SOFTWARE,  // Tile pixels copied straight into the sketch pixel buffer (JAVA2D only)
+        SCROLLING  // Background kept in a scroll-reuse backbuffer, foreground from chunk images
+    }
+
+    private PApplet p;  // Null for a headless map, which keeps collision data but never draws
     private PImage[] tiles;
+    private int tileCount;
+    private ScaledFrames scaledTiles;
     private int[][] backgroundLayer;
     private int[][] foregroundLayer;
+
+    // Tiles without any transparent pixels, and background cells not hidden by one of them
+    private boolean[] opaqueTiles;
+    private boolean[][] backgroundVisible;
     private int tileWidth, tileHeight, scaleFactor;
 
-    // Tile indices that block player movement
-    private int[] solidTiles = {2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38};
-    private int[] solidForegroundTiles = solidTiles;
+    // Pre-rendered chunk images for each layer
+    private LayerChunkCache backgroundCache;
+    private LayerChunkCache foregroundCache;
+
+    private TileBlitter blitter;
+    private ScrollBuffer backgroundBuffer;
+    private RenderMode renderMode = RenderMode.CHUNKED;
+
+    // Default tile indices that block player movement, used when a map does not list its own
+    private static final int[] DEFAULT_SOLID_TILES = {2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38};
+    private int[] solidTiles = DEFAULT_SOLID_TILES;
+    private int[] solidForegroundTiles = DEFAULT_SOLID_TILES;
+
+    // Per-cell solidity of both layers combined, and the cells that block pathfinding
+    private CollisionGrid collisionGrid;
+    private CollisionGrid pathGrid;
+    private FlowField flowField;
+    private boolean[] solidLookup;
+    private boolean[] solidForegroundLookup;
+
+    // One bit per non-transparent pixel, one int per tile pixel row (tiles up to 32 px wide)
+    private int[][] tileMasks;
+    private int[] emptyMask;
+    private boolean pixelCollision = true;
+
+    // Rays per batch task, and the batch size below which rays are cast on the calling thread
+    private static final int RAY_CHUNK_SIZE = 256;
+    private static final int RAY_PARALLEL_THRESHOLD = 1024;
 
     public GameMap(PApplet p, PImage tileset, int cols, int rows, int scaleFactor) {
         this.p = p;
         this.scaleFactor = scaleFactor;
         this.tileWidth = tileset.width / cols;
         this.tileHeight = tileset.height / rows;
+        this.tileCount = cols * rows;
         extractTiles(tileset, cols, rows);
     }
 
+    // Headless map without images: no rendering, and solid cells collide as whole cells
+    public GameMap(int tileWidth, int tileHeight, int tileCount, int scaleFactor) {
+        this.scaleFactor = scaleFactor;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.tileCount = tileCount;
+        this.opaqueTiles = new boolean[tileCount];
+        this.emptyMask = new int[tileHeight];
+        this.pixelCollision = false;
+    }
+
+    // Headless map with pixel collision masks read from the tileset file, so collisions match the windowed game
+    public GameMap(File tilesetFile, int cols, int rows, int scaleFactor) throws IOException {
+        BufferedImage tileset = ImageIO.read(tilesetFile);
+        if (tileset == null) {
+            throw new IOException("Unsupported image format: " + tilesetFile);
+        }
+        this.scaleFactor = scaleFactor;
+        this.tileWidth = tileset.getWidth() / cols;
+        this.tileHeight = tileset.getHeight() / rows;
+        this.tileCount = cols * rows;
+
+        int[][] tilePixels = new int[tileCount][];
+        for (int j = 0; j < rows; j++) {
+            for (int i = 0; i < cols; i++) {
+                tilePixels[i + j * cols] = tileset.getRGB(i * tileWidth, j * tileHeight, tileWidth, tileHeight,
+                        null, 0, tileWidth);
+            }
+        }
+        opaqueTiles = findOpaqueTiles(tilePixels);
+        tileMasks = createTileMasks(tilePixels);
+        emptyMask = new int[tileHeight];
+    }
+
     // Extract individual tiles from tileset image
     private void extractTiles(PImage tileset, int cols, int rows) {
         tiles = new PImage[cols * rows];
@@ -30,16 +112,140 @@ public class GameMap {
                 tiles[i + j * cols] = tileset.get(i * tileWidth, j * tileHeight, tileWidth, tileHeight);
             }
         }
+        scaledTiles = new ScaledFrames(p, tiles, scaleFactor);
+
+        int[][] tilePixels = new int[tiles.length][];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i].loadPixels();
+            tilePixels[i] = tiles[i].pixels;
+        }
+        opaqueTiles = findOpaqueTiles(tilePixels);
+        tileMasks = createTileMasks(tilePixels);
+        emptyMask = new int[tileHeight];
+        blitter = new TileBlitter(tiles, tileWidth, tileHeight, scaleFactor);
+        backgroundBuffer = new ScrollBuffer(p);
+    }
+
+    // Record which tiles fully cover whatever is drawn beneath them
+    private boolean[] findOpaqueTiles(int[][] tilePixels) {
+        boolean[] opaque = new boolean[tilePixels.length];
+        for (int i = 0; i < tilePixels.length; i++) {
+            opaque[i] = true;
+            for (int pixel : tilePixels[i]) {
+                if ((pixel >>> 24) != 255) {
+                    opaque[i] = false;
+                    break;
+                }
+            }
+        }
+        opaque[0] = false;  // Empty tile is never drawn
+        return opaque;
+    }
+
+    // Build per-tile collision masks from the tile alpha channel
+    private int[][] createTileMasks(int[][] tilePixels) {
+        if (tileWidth > 32) {
+            throw new IllegalArgumentException("Pixel collision masks support tiles up to 32 pixels wide");
+        }
+
+        int[][] masks = new int[tilePixels.length][tileHeight];
+        for (int i = 0; i < tilePixels.length; i++) {
+            for (int y = 0; y < tileHeight; y++) {
+                int rowBits = 0;
+                for (int x = 0; x < tileWidth; x++) {
+                    if ((tilePixels[i][y * tileWidth + x] >>> 24) != 0) {
+                        rowBits |= 1 << x;
+                    }
+                }
+                masks[i][y] = rowBits;
+            }
+        }
+        return masks;
+    }
+
+    // Change the display scale, rebuilding scaled tiles and layer caches
+    public void setScaleFactor(int scaleFactor) {
+        this.scaleFactor = scaleFactor;
+        if (isHeadless()) return;
+        scaledTiles.setScaleFactor(scaleFactor);
+        blitter.setScaleFactor(scaleFactor);
+        backgroundBuffer.invalidate();
+        if (backgroundLayer != null) {
+            createLayerCaches();
+        }
     }
 
     // Load map data from JSON file
     public void loadMapFromJSON(String filename) {
-        JSONObject mapData = p.loadJSONObject(filename);
+        JSONObject mapData = loadJSON(filename);
         int mapWidth = mapData.getInt("width");
         int mapHeight = mapData.getInt("height");
 
         backgroundLayer = parseLayer(mapData.getJSONArray("tiles"), mapWidth, mapHeight);
         foregroundLayer = parseLayer(mapData.getJSONArray("foreground"), mapWidth, mapHeight);
+
+        // Optional per-map solid tile lists
+        solidTiles = mapData.hasKey("solidTiles") ? mapData.getJSONArray("solidTiles").getIntArray() : DEFAULT_SOLID_TILES;
+        solidForegroundTiles = mapData.hasKey("solidForegroundTiles")
+                ? mapData.getJSONArray("solidForegroundTiles").getIntArray() : solidTiles;
+        solidLookup = createLookup(solidTiles);
+        solidForegroundLookup = createLookup(solidForegroundTiles);
+
+        collisionGrid = new CollisionGrid(mapWidth, mapHeight);
+        pathGrid = new CollisionGrid(mapWidth, mapHeight);
+        for (int i = 0; i < mapHeight; i++) {
+            for (int j = 0; j < mapWidth; j++) {
+                collisionGrid.setSolid(i, j, isSolidCell(i, j));
+                pathGrid.setSolid(i, j, blocksPath(i, j));
+            }
+        }
+        flowField = new FlowField(pathGrid);
+
+        backgroundVisible = new boolean[mapHeight][mapWidth];
+        for (int i = 0; i < mapHeight; i++) {
+            for (int j = 0; j < mapWidth; j++) {
+                backgroundVisible[i][j] = !opaqueTiles[foregroundLayer[i][j]];
+            }
+        }
+
+        if (!isHeadless()) {
+            createLayerCaches();
+            backgroundBuffer.invalidate();
+        }
+    }
+
+    // Read a JSON file through the sketch, or straight from disk (also trying data/) when headless
+    private JSONObject loadJSON(String filename) {
+        if (!isHeadless()) {
+            return p.loadJSONObject(filename);
+        }
+
+        File file = new File(filename);
+        if (!file.exists()) {
+            file = new File("data", filename);
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            return new JSONObject(reader);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read map file " + filename, e);
+        }
+    }
+
+    private void createLayerCaches() {
+        int tilePixelWidth = tileWidth * scaleFactor;
+        int tilePixelHeight = tileHeight * scaleFactor;
+        backgroundCache = new LayerChunkCache(p, getMapWidth(), getMapHeight(), tilePixelWidth, tilePixelHeight);
+        foregroundCache = new LayerChunkCache(p, getMapWidth(), getMapHeight(), tilePixelWidth, tilePixelHeight);
+    }
+
+    private boolean[] createLookup(int[] tileIndices) {
+        boolean[] lookup = new boolean[tileCount];
+        for (int tileIndex : tileIndices) {
+            if (tileIndex >= 0 && tileIndex < lookup.length) {
+                lookup[tileIndex] = true;
+            }
+        }
+        return lookup;
     }
 
     private int[][] parseLayer(JSONArray layerArray, int width, int height) {
@@ -60,6 +266,8 @@ public class GameMap {
         mapData.setInt("height", getMapHeight());
         mapData.setJSONArray("tiles", convertLayerToJSONArray(backgroundLayer));
         mapData.setJSONArray("foreground", convertLayerToJSONArray(foregroundLayer));
+        mapData.setJSONArray("solidTiles", convertToJSONArray(solidTiles));
+        mapData.setJSONArray("solidForegroundTiles", convertToJSONArray(solidForegroundTiles));
 
         p.saveJSONObject(mapData, "data/" + filename);
         p.println("Map saved to " + filename);
@@ -77,26 +285,86 @@ public class GameMap {
         return layerArray;
     }
 
+    private JSONArray convertToJSONArray(int[] values) {
+        JSONArray array = new JSONArray();
+        for (int value : values) {
+            array.append(value);
+        }
+        return array;
+    }
+
     public JSONArray getEnemiesFromJSON(String filename) {
-        return p.loadJSONObject(filename).getJSONArray("enemies");
+        return loadJSON(filename).getJSONArray("enemies");
     }
 
-    // Render a layer of the map
-    public void drawLayer(int[][] layer) {
-        for (int i = 0; i < layer.length; i++) {
-            for (int j = 0; j < layer[i].length; j++) {
-                int tileIndex = layer[i][j];
-                if (tileIndex != 0) {  // Skip empty tiles
-                    p.image(tiles[tileIndex], j * tileWidth * scaleFactor, i * tileHeight * scaleFactor,
-                            tileWidth * scaleFactor, tileHeight * scaleFactor);
+    // Render the tiles of a layer that fall inside the given view rectangle (world pixels)
+    public void drawLayer(int[][] layer, int viewX, int viewY, int viewW, int viewH) {
+        drawLayer(layer, null, viewX, viewY, viewW, viewH);
+    }
+
+    // Same as above, skipping cells whose entry in the visibility mask is false
+    private void drawLayer(int[][] layer, boolean[][] visible, int viewX, int viewY, int viewW, int viewH) {
+        int tileW = tileWidth * scaleFactor;
+        int tileH = tileHeight * scaleFactor;
+
+        // Clamp the visible tile range to the layer bounds
+        int startCol = Math.max(0, Math.floorDiv(viewX, tileW));
+        int startRow = Math.max(0, Math.floorDiv(viewY, tileH));
+        int endCol = Math.min(layer[0].length - 1, Math.floorDiv(viewX + viewW - 1, tileW));
+        int endRow = Math.min(layer.length - 1, Math.floorDiv(viewY + viewH - 1, tileH));
+
+        for (int i = startRow; i <= endRow; i++) {
+            int[] row = layer[i];
+            boolean[] visibleRow = visible != null ? visible[i] : null;
+            for (int j = startCol; j <= endCol; j++) {
+                int tileIndex = row[j];
+                if (tileIndex != 0 && (visibleRow == null || visibleRow[j])) {  // Skip empty and covered tiles
+                    p.image(scaledTiles.get(tileIndex), j * tileW, i * tileH);
                 }
             }
         }
     }
 
+    // Render a whole layer of the map
+    public void drawLayer(int[][] layer) {
+        drawLayer(layer, 0, 0, getWidthInPixels(), getHeightInPixels());
+    }
+
     public void drawBackgroundLayer() { drawLayer(backgroundLayer); }
     public void drawForegroundLayer() { drawLayer(foregroundLayer); }
 
+    // Render the visible part of a layer with the current render mode
+    public void drawBackgroundLayer(int viewX, int viewY, int viewW, int viewH) {
+        if (renderMode == RenderMode.SCROLLING) {
+            backgroundBuffer.draw(backgroundLayer, backgroundVisible, blitter, viewX, viewY, viewW, viewH);
+            return;
+        }
+        drawLayer(backgroundLayer, backgroundVisible, backgroundCache, viewX, viewY, viewW, viewH);
+    }
+
+    public void drawForegroundLayer(int viewX, int viewY, int viewW, int viewH) {
+        drawLayer(foregroundLayer, null, foregroundCache, viewX, viewY, viewW, viewH);
+    }
+
+    private void drawLayer(int[][] layer, boolean[][] visible, LayerChunkCache cache,
+                           int viewX, int viewY, int viewW, int viewH) {
+        switch (renderMode) {
+            case CHUNKED:
+            case SCROLLING:
+                cache.draw(layer, visible, scaledTiles, viewX, viewY, viewW, viewH);
+                break;
+            case SOFTWARE:
+                // Pixels are in screen space, so the view origin maps to the top-left corner
+                p.loadPixels();
+                blitter.blitLayer(layer, visible, p.pixels, p.width, p.height, viewX, viewY, 0, 0, viewW, viewH);
+                p.updatePixels();
+                break;
+            default:
+                drawLayer(layer, visible, viewX, viewY, viewW, viewH);
+                break;
+        }
+    }
+
     // Check if an object collides with solid tiles
     public boolean checkCollision(float x, float y, float width, float height) {
         int startX = (int)(x / (tileWidth * scaleFactor));
@@ -104,15 +372,40 @@ public class GameMap {
         int endX = (int)((x + width) / (tileWidth * scaleFactor));
         int endY = (int)((y + height) / (tileHeight * scaleFactor));
 
-        return checkTileCollision(backgroundLayer, startX, startY, endX, endY, solidTiles) ||
-                checkTileCollision(foregroundLayer, startX, startY, endX, endY, solidForegroundTiles);
+        // Coarse test against whole cells first; most queries over open floor stop here
+        if (!collisionGrid.anySolid(startY, startX, endY, endX)) return false;
+        if (!pixelCollision) return true;
+
+        return checkPixelCollision(x, y, width, height);
     }
 
-    private boolean checkTileCollision(int[][] layer, int startX, int startY, int endX, int endY, int[] solidList) {
-        for (int y = startY; y <= endY; y++) {
-            for (int x = startX; x <= endX; x++) {
-                if (y >= 0 && y < layer.length && x >= 0 && x < layer[0].length) {
-                    if (contains(solidList, layer[y][x])) {
+    // Test the box against the tile masks of the solid cells it covers, in native tile pixels
+    private boolean checkPixelCollision(float x, float y, float width, float height) {
+        int px0 = (int) Math.floor(x / scaleFactor);
+        int py0 = (int) Math.floor(y / scaleFactor);
+        int px1 = (int) Math.ceil((x + width) / scaleFactor) - 1;
+        int py1 = (int) Math.ceil((y + height) / scaleFactor) - 1;
+
+        int startCol = Math.max(0, Math.floorDiv(px0, tileWidth));
+        int startRow = Math.max(0, Math.floorDiv(py0, tileHeight));
+        int endCol = Math.min(getMapWidth() - 1, Math.floorDiv(px1, tileWidth));
+        int endRow = Math.min(getMapHeight() - 1, Math.floorDiv(py1, tileHeight));
+
+        for (int row = startRow; row <= endRow; row++) {
+            int localY0 = Math.max(0, py0 - row * tileHeight);
+            int localY1 = Math.min(tileHeight - 1, py1 - row * tileHeight);
+
+            for (int col = startCol; col <= endCol; col++) {
+                if (!collisionGrid.isSolid(row, col)) continue;
+
+                int localX0 = Math.max(0, px0 - col * tileWidth);
+                int localX1 = Math.min(tileWidth - 1, px1 - col * tileWidth);
+                int columnBits = (int) ((-1L << localX0) & (-1L >>> (63 - localX1)));
+
+                int[] backgroundMask = solidMask(backgroundLayer[row][col], solidLookup);
+                int[] foregroundMask = solidMask(foregroundLayer[row][col], solidForegroundLookup);
+                for (int ly = localY0; ly <= localY1; ly++) {
+                    if (((backgroundMask[ly] | foregroundMask[ly]) & columnBits) != 0) {
                         return true;
                     }
                 }
@@ -121,20 +414,277 @@ public class GameMap {
         return false;
     }
 
-    private boolean contains(int[] array, int value) {
-        for (int num : array) {
-            if (num == value) return true;
+    // Mask of a tile if it is solid in its layer, otherwise the empty mask
+    private int[] solidMask(int tileIndex, boolean[] lookup) {
+        return tileIndex < lookup.length && lookup[tileIndex] ? tileMasks[tileIndex] : emptyMask;
+    }
+
+    // Whether either layer makes the cell block movement
+    private boolean isSolidCell(int row, int col) {
+        int background = backgroundLayer[row][col];
+        int foreground = foregroundLayer[row][col];
+        return (background < solidLookup.length && solidLookup[background]) ||
+                (foreground < solidForegroundLookup.length && solidForegroundLookup[foreground]);
+    }
+
+    // Whether pathfinding should route around the cell. Chasers head for cell centres, so with
+    // pixel collision only solid pixels in the middle of the cell block it; a cell that is solid
+    // only at its edges (a partial or decorative tile) stays walkable, as it is for movement.
+    private boolean blocksPath(int row, int col) {
+        if (!isSolidCell(row, col)) return false;
+        if (!pixelCollision) return true;
+
+        int[] backgroundMask = solidMask(backgroundLayer[row][col], solidLookup);
+        int[] foregroundMask = solidMask(foregroundLayer[row][col], solidForegroundLookup);
+        int columnBits = (int) ((-1L << (tileWidth / 4)) & (-1L >>> (64 - tileWidth * 3 / 4)));
+        for (int y = tileHeight / 4; y < tileHeight * 3 / 4; y++) {
+            if (((backgroundMask[y] | foregroundMask[y]) & columnBits) != 0) return true;
         }
         return false;
     }
 
+    // Cast a ray through the collision grid (Amanatides-Woo DDA). Returns the distance in world
+    // pixels to the first solid cell, or -1 if none is hit within maxDistance. With pixel collision
+    // a solid cell only stops the ray where it crosses a solid pixel of the cell's tile masks, the
+    // same test movement uses. The hit cell index (row * mapWidth + col) is written to hitCell[0]
+    // when hitCell is not null.
+    public float raycast(float originX, float originY, float dirX, float dirY, float maxDistance, int[] hitCell) {
+        return raycast(originX, originY, dirX, dirY, maxDistance, hitCell, 0);
+    }
+
+    // As above, writing the hit cell to hitCells[index], so batches need no scratch array
+    private float raycast(float originX, float originY, float dirX, float dirY, float maxDistance,
+                          int[] hitCells, int index) {
+        float length = (float) Math.sqrt(dirX * dirX + dirY * dirY);
+        if (length == 0) return -1;
+        dirX /= length;
+        dirY /= length;
+
+        int cellWidth = tileWidth * scaleFactor;
+        int cellHeight = tileHeight * scaleFactor;
+        int mapWidth = getMapWidth();
+        int mapHeight = getMapHeight();
+
+        int col = (int) Math.floor(originX / cellWidth);
+        int row = (int) Math.floor(originY / cellHeight);
+        int stepX = dirX > 0 ? 1 : (dirX < 0 ? -1 : 0);
+        int stepY = dirY > 0 ? 1 : (dirY < 0 ? -1 : 0);
+
+        // Ray distance to the next vertical/horizontal cell border, and between borders
+        float nextX = stepX > 0 ? ((col + 1) * cellWidth - originX) / dirX
+                : stepX < 0 ? (col * cellWidth - originX) / dirX : Float.POSITIVE_INFINITY;
+        float nextY = stepY > 0 ? ((row + 1) * cellHeight - originY) / dirY
+                : stepY < 0 ? (row * cellHeight - originY) / dirY : Float.POSITIVE_INFINITY;
+        float deltaX = stepX != 0 ? cellWidth / Math.abs(dirX) : Float.POSITIVE_INFINITY;
+        float deltaY = stepY != 0 ? cellHeight / Math.abs(dirY) : Float.POSITIVE_INFINITY;
+
+        float distance = 0;
+        while (distance <= maxDistance) {
+            if (collisionGrid.isSolid(row, col)) {
+                float hit = pixelCollision
+                        ? castThroughCell(row, col, originX, originY, dirX, dirY, distance,
+                                Math.min(Math.min(nextX, nextY), maxDistance))
+                        : distance;
+                if (hit >= 0) {
+                    if (hitCells != null) hitCells[index] = row * mapWidth + col;
+                    return hit;
+                }
+            }
+
+            // Outside the map and heading away from it: nothing left to hit
+            if ((col < 0 && stepX <= 0) || (col >= mapWidth && stepX >= 0) ||
+                    (row < 0 && stepY <= 0) || (row >= mapHeight && stepY >= 0)) {
+                break;
+            }
+
+            if (nextX < nextY) {
+                distance = nextX;
+                nextX += deltaX;
+                col += stepX;
+            } else {
+                distance = nextY;
+                nextY += deltaY;
+                row += stepY;
+            }
+        }
+        return -1;
+    }
+
+    // Step a ray pixel by pixel through one solid cell, between the distances where it enters
+    // and leaves the cell. Returns the distance to the first solid pixel, or -1 if the ray only
+    // crosses open pixels of the cell.
+    private float castThroughCell(int row, int col, float originX, float originY, float dirX, float dirY,
+                                  float enter, float exit) {
+        int[] backgroundMask = solidMask(backgroundLayer[row][col], solidLookup);
+        int[] foregroundMask = solidMask(foregroundLayer[row][col], solidForegroundLookup);
+
+        // Entry point in native pixels relative to the cell's corner
+        float localX = (originX + dirX * enter) / scaleFactor - col * tileWidth;
+        float localY = (originY + dirY * enter) / scaleFactor - row * tileHeight;
+        int px = Math.max(0, Math.min(tileWidth - 1, (int) Math.floor(localX)));
+        int py = Math.max(0, Math.min(tileHeight - 1, (int) Math.floor(localY)));
+        int stepX = dirX > 0 ? 1 : (dirX < 0 ? -1 : 0);
+        int stepY = dirY > 0 ? 1 : (dirY < 0 ? -1 : 0);
+
+        float nextX = stepX > 0 ? enter + (px + 1 - localX) * scaleFactor / dirX
+                : stepX < 0 ? enter + (px - localX) * scaleFactor / dirX : Float.POSITIVE_INFINITY;
+        float nextY = stepY > 0 ? enter + (py + 1 - localY) * scaleFactor / dirY
+                : stepY < 0 ? enter + (py - localY) * scaleFactor / dirY : Float.POSITIVE_INFINITY;
+        float deltaX = stepX != 0 ? scaleFactor / Math.abs(dirX) : Float.POSITIVE_INFINITY;
+        float deltaY = stepY != 0 ? scaleFactor / Math.abs(dirY) : Float.POSITIVE_INFINITY;
+
+        float distance = enter;
+        while (distance <= exit) {
+            if ((((backgroundMask[py] | foregroundMask[py]) >>> px) & 1) != 0) return distance;
+
+            if (nextX < nextY) {
+                distance = Math.max(distance, nextX);
+                nextX += deltaX;
+                px += stepX;
+            } else {
+                distance = Math.max(distance, nextY);
+                nextY += deltaY;
+                py += stepY;
+            }
+            if (px < 0 || px >= tileWidth || py < 0 || py >= tileHeight) break;
+        }
+        return -1;
+    }
+
+    // Whether a world point lies on a solid pixel, or in a solid cell without pixel collision
+    private boolean isSolidPoint(float x, float y) {
+        int col = (int) Math.floor(x / (tileWidth * scaleFactor));
+        int row = (int) Math.floor(y / (tileHeight * scaleFactor));
+        if (!collisionGrid.isSolid(row, col)) return false;
+        if (!pixelCollision) return true;
+
+        int px = (int) Math.floor(x / scaleFactor) - col * tileWidth;
+        int py = (int) Math.floor(y / scaleFactor) - row * tileHeight;
+        int bits = solidMask(backgroundLayer[row][col], solidLookup)[py] |
+                solidMask(foregroundLayer[row][col], solidForegroundLookup)[py];
+        return ((bits >>> px) & 1) != 0;
+    }
+
+    // Check whether the straight line between two points crosses no solid pixel
+    public boolean hasLineOfSight(float fromX, float fromY, float toX, float toY) {
+        float dx = toX - fromX;
+        float dy = toY - fromY;
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        if (distance == 0) return !isSolidPoint(fromX, fromY);
+        return raycast(fromX, fromY, dx, dy, distance, null) < 0;
+    }
+
+    // Cast many rays, in parallel for large batches. For each ray i the hit distance (or -1) is
+    // written to hitDistances[i] and the hit cell index (or -1) to hitCells[i].
+    public void raycastBatch(float[] originX, float[] originY, float[] dirX, float[] dirY, float maxDistance,
+                             int count, float[] hitDistances, int[] hitCells) {
+        if (count < RAY_PARALLEL_THRESHOLD) {
+            castRange(originX, originY, dirX, dirY, maxDistance, 0, count, hitDistances, hitCells);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new RayTask(originX, originY, dirX, dirY, maxDistance,
+                0, count, hitDistances, hitCells));
+    }
+
+    private void castRange(float[] originX, float[] originY, float[] dirX, float[] dirY, float maxDistance,
+                           int from, int to, float[] hitDistances, int[] hitCells) {
+        for (int i = from; i < to; i++) {
+            hitCells[i] = -1;
+            hitDistances[i] = raycast(originX[i], originY[i], dirX[i], dirY[i], maxDistance, hitCells, i);
+        }
+    }
+
+    // Splits a range of rays in half until it is small enough to cast directly
+    private class RayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] originX, originY, dirX, dirY, hitDistances;
+        private final int[] hitCells;
+        private final float maxDistance;
+        private final int from, to;
+
+        RayTask(float[] originX, float[] originY, float[] dirX, float[] dirY, float maxDistance,
+                int from, int to, float[] hitDistances, int[] hitCells) {
+            this.originX = originX;
+            this.originY = originY;
+            this.dirX = dirX;
+            this.dirY = dirY;
+            this.maxDistance = maxDistance;
+            this.from = from;
+            this.to = to;
+            this.hitDistances = hitDistances;
+            this.hitCells = hitCells;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= RAY_CHUNK_SIZE) {
+                castRange(originX, originY, dirX, dirY, maxDistance, from, to, hitDistances, hitCells);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RayTask(originX, originY, dirX, dirY, maxDistance, from, middle, hitDistances, hitCells),
+                    new RayTask(originX, originY, dirX, dirY, maxDistance, middle, to, hitDistances, hitCells));
+        }
+    }
+
     // Methods to modify tiles
     public void setBackgroundTile(int row, int col, int tileIndex) {
         modifyTile(backgroundLayer, row, col, tileIndex);
+        invalidateBackgroundTile(row, col);
+        updateCollisionCell(row, col);
     }
 
     public void setForegroundTile(int row, int col, int tileIndex) {
         modifyTile(foregroundLayer, row, col, tileIndex);
+        if (!isHeadless()) {
+            foregroundCache.invalidateTile(row, col);
+        }
+        updateCollisionCell(row, col);
+
+        // Uncover or hide the background cell beneath
+        if (row >= 0 && row < backgroundVisible.length && col >= 0 && col < backgroundVisible[0].length) {
+            boolean visible = !opaqueTiles[tileIndex];
+            if (backgroundVisible[row][col] != visible) {
+                backgroundVisible[row][col] = visible;
+                invalidateBackgroundTile(row, col);
+            }
+        }
+    }
+
+    private void updateCollisionCell(int row, int col) {
+        if (row >= 0 && row < getMapHeight() && col >= 0 && col < getMapWidth()) {
+            collisionGrid.setSolid(row, col, isSolidCell(row, col));
+
+            boolean blocked = blocksPath(row, col);
+            if (pathGrid.isSolid(row, col) != blocked) {
+                pathGrid.setSolid(row, col, blocked);
+                flowField.onCellChanged(row, col);
+            }
+        }
+    }
+
+    // Switch between pixel-mask and whole-cell collision (masks permitting). The path grid
+    // depends on the mode too, so it is rebuilt and the flow field recomputed straight away.
+    public void setPixelCollision(boolean pixelCollision) {
+        pixelCollision = pixelCollision && tileMasks != null;
+        if (this.pixelCollision == pixelCollision) return;
+        this.pixelCollision = pixelCollision;
+        if (pathGrid == null) return;
+
+        for (int row = 0; row < getMapHeight(); row++) {
+            for (int col = 0; col < getMapWidth(); col++) {
+                pathGrid.setSolid(row, col, blocksPath(row, col));
+            }
+        }
+        flowField.refresh();
+    }
+
+    private void invalidateBackgroundTile(int row, int col) {
+        if (isHeadless()) return;
+        backgroundCache.invalidateTile(row, col);
+        backgroundBuffer.invalidateRect(col * tileWidth * scaleFactor, row * tileHeight * scaleFactor,
+                tileWidth * scaleFactor, tileHeight * scaleFactor);
     }
 
     private void modifyTile(int[][] layer, int row, int col, int tileIndex) {
@@ -150,9 +700,18 @@ public class GameMap {
     public int getHeightInPixels() { return getMapHeight() * tileHeight * scaleFactor; }
     public int getTileWidth() { return tileWidth; }
     public int getTileHeight() { return tileHeight; }
+    public int getScaledTileWidth() { return tileWidth * scaleFactor; }
+    public int getScaledTileHeight() { return tileHeight * scaleFactor; }
     public int getBackgroundTile(int row, int col) { return backgroundLayer[row][col]; }
     public int getForegroundTile(int row, int col) { return foregroundLayer[row][col]; }
     public int[] getSolidTiles() { return solidTiles; }
     public int[] getSolidForegroundTiles() { return solidForegroundTiles; }
+    public CollisionGrid getCollisionGrid() { return collisionGrid; }
+    public CollisionGrid getPathGrid() { return pathGrid; }
+    public FlowField getFlowField() { return flowField; }
+    public boolean isPixelCollision() { return pixelCollision; }
     public PImage[] getTiles() { return tiles; }
+    public boolean isHeadless() { return p == null; }
+    public RenderMode getRenderMode() { return renderMode; }
+    public void setRenderMode(RenderMode renderMode) { this.renderMode = renderMode; }
 }
\ No newline at end of file
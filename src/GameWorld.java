@@ -0,0 +1,276 @@
+import processing.core.PApplet;
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+import java.nio.ByteBuffer;
+
+/**
+ * Game state and the per-tick simulation: map, player, enemies, projectiles and particles.
+ * It never draws, so the same world runs inside the sketch or headless without a window.
+ */
+public class GameWorld {
+    private GameMap gameMap;
+    private Player player;
+    private EnemyPool enemies;
+    private AIScheduler aiScheduler = new AIScheduler(2000);  // 2 ms of AI decisions per tick
+    private ProjectilePool projectiles;
+    private ParticleSystem particles;
+    private int scaleFactor;
+
+    // Projectile settings
+    private float projectileSpeed = 24;   // World pixels per tick
+    private int projectileLifetime = 90;  // Ticks before a shot fizzles out
+
+    // Where the player starts on every level
+    private float startX = 200;
+    private float startY = 200;
+
+    // Screen size around the player that gets full-rate enemy simulation; zero simulates everything
+    private int viewWidth = 0;
+    private int viewHeight = 0;
+
+    // Volatile because a renderer on another thread reads it
+    private volatile boolean gameWon = false;
+    private long tick = 0;
+    private String levelFile;
+    private InputRecorder recorder;
+
+    /**
+     * Creates a world around an already loaded map; p is only used for drawing and may be null.
+     */
+    public GameWorld(PApplet p, GameMap gameMap, Player player, Enemy enemyType, int scaleFactor) {
+        this.gameMap = gameMap;
+        this.player = player;
+        this.scaleFactor = scaleFactor;
+
+        projectiles = new ProjectilePool(p, 4096);
+        particles = new ParticleSystem(p, 32768);
+        enemies = new EnemyPool(enemyType, 64);
+        enemies.setGameMap(gameMap);
+        enemies.setParticles(particles);
+        projectiles.setParticles(particles);
+    }
+
+    /**
+     * Loads a level: map tiles, enemies, and the player back at the start.
+     */
+    public void loadLevel(String mapFile) {
+        if (recorder != null) {
+            recorder.recordLevel(tick, mapFile);
+        }
+        gameMap.loadMapFromJSON(mapFile);
+        levelFile = mapFile;
+        player.setPosition(startX, startY);
+        projectiles.clear();
+        particles.clear();
+        loadEnemies(mapFile);
+        gameWon = false;
+    }
+
+    /**
+     * Advance the world by one fixed tick
+     */
+    public void tick() {
+        tick++;
+        if (gameWon) return;
+
+        player.update(gameMap, enemies);
+
+        // Point the shared flow field at the player's tile, then spend a bounded slice of the tick on enemy decisions
+        float playerWidth = player.getTileWidth() * scaleFactor;
+        float playerHeight = player.getTileHeight() * scaleFactor;
+        float playerCenterX = player.getX() + playerWidth / 2;
+        float playerCenterY = player.getY() + playerHeight / 2;
+        gameMap.getFlowField().setTarget((int) (playerCenterY / gameMap.getScaledTileHeight()),
+                (int) (playerCenterX / gameMap.getScaledTileWidth()));
+        aiScheduler.run(enemies, playerCenterX, playerCenterY);
+
+        // Move enemies and kill those the player touches, simulating by distance from the player's view
+        if (viewWidth > 0 && viewHeight > 0) {
+            float viewX = Math.max(0, Math.min(player.getX() - viewWidth / 2f, gameMap.getWidthInPixels() - viewWidth));
+            float viewY = Math.max(0, Math.min(player.getY() - viewHeight / 2f, gameMap.getHeightInPixels() - viewHeight));
+            enemies.setSimulationView(viewX, viewY, viewWidth, viewHeight);
+        } else {
+            enemies.clearSimulationView();
+        }
+        enemies.updateAll(player.getX(), player.getY(), playerWidth, playerHeight);
+
+        // Move shots after enemies so hits are tested against this tick's positions
+        projectiles.update(gameMap, enemies);
+        particles.update();
+
+        // Check win condition
+        if (enemies.isEmpty()) {
+            gameWon = true;
+        }
+    }
+
+    /**
+     * Apply one gameplay key event
+     */
+    public void handleKey(char key, boolean pressed) {
+        if (recorder != null) {
+            recorder.recordKey(tick, key, pressed);
+        }
+
+        if (!pressed) {
+            player.keyReleased(key);
+        } else if (key == ' ') {
+            fireProjectile();
+        } else {
+            player.keyPressed(key);
+        }
+    }
+
+    /**
+     * Launch a projectile from the player's centre in the direction they face
+     */
+    private void fireProjectile() {
+        if (gameWon) return;
+
+        float dx = 0, dy = 0;
+        switch (player.getDirection()) {
+            case 0: dy = projectileSpeed; break;
+            case 1: dx = -projectileSpeed; break;
+            case 2: dy = -projectileSpeed; break;
+            default: dx = projectileSpeed; break;
+        }
+        projectiles.spawn(player.getX() + player.getTileWidth() * scaleFactor / 2f,
+                player.getY() + player.getTileHeight() * scaleFactor / 2f,
+                dx, dy, projectileLifetime);
+    }
+
+    /**
+     * Sets the screen size used to centre a simulation view on the player each tick.
+     * It is derived from the player rather than the render camera, so ticks stay reproducible.
+     */
+    public void setViewSize(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    /**
+     * Hash of the player and enemy state, for checking that a replay ended where the recording did
+     */
+    public long checksum() {
+        long hash = 0xCBF29CE484222325L;
+        hash = mix(hash, Float.floatToIntBits(player.getX()));
+        hash = mix(hash, Float.floatToIntBits(player.getY()));
+        hash = mix(hash, player.getDirection());
+        hash = mix(hash, player.getFrame());
+        hash = mix(hash, gameWon ? 1 : 0);
+        hash = mix(hash, enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            hash = mix(hash, Float.floatToIntBits(enemies.getX(i)));
+            hash = mix(hash, Float.floatToIntBits(enemies.getY(i)));
+            hash = mix(hash, enemies.getDirection(i));
+            hash = mix(hash, enemies.getFrame(i));
+            hash = mix(hash, enemies.getDeathFrame(i));
+            hash = mix(hash, enemies.isDying(i) ? 1 : 0);
+        }
+        return hash;
+    }
+
+    // FNV-1a step over the four bytes of a value
+    private static long mix(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash ^= (value >>> shift) & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Bytes needed by writeState() for the current world.
+     */
+    public int stateSize() {
+        return 13 + Player.STATE_SIZE + enemies.stateSize() + projectiles.stateSize();
+    }
+
+    /**
+     * Writes the full game state (tick, win flag, AI turn, player, enemies, projectiles) at the buffer's
+     * position. The map itself is not included, so state only restores into the level it was taken on.
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putLong(tick);
+        buffer.put((byte) (gameWon ? 1 : 0));
+        buffer.putInt(aiScheduler.getCursor());
+        player.writeState(buffer);
+        enemies.writeState(buffer);
+        projectiles.writeState(buffer);
+    }
+
+    /**
+     * Restores state written by writeState(); particles are purely visual and are cleared.
+     * Ticks run again from here only repeat exactly without an AI time budget, since how many
+     * decisions fit into a tick depends on the machine.
+     */
+    public void readState(ByteBuffer buffer) {
+        tick = buffer.getLong();
+        gameWon = buffer.get() != 0;
+        aiScheduler.setCursor(buffer.getInt());
+        player.readState(buffer);
+        enemies.readState(buffer);
+        projectiles.readState(buffer);
+        particles.clear();
+    }
+
+    /**
+     * Sets the AI time budget in microseconds; zero or less runs every decision every tick,
+     * which recording and replay need because a time budget depends on machine speed.
+     */
+    public void setAIBudgetMicros(int budgetMicros) {
+        aiScheduler.setBudgetMicros(budgetMicros);
+    }
+
+    public void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Replace all enemies with those listed in a map file
+     */
+    private void loadEnemies(String mapFile) {
+        enemies.clear();
+        enemies.setSpatialHash(createEnemyHash());
+        JSONArray enemiesArray = gameMap.getEnemiesFromJSON(mapFile);
+
+        for (int i = 0; i < enemiesArray.size(); i++) {
+            JSONObject enemyData = enemiesArray.getJSONObject(i);
+
+            float x = enemyData.getFloat("x");
+            float y = enemyData.getFloat("y");
+            float speed = enemyData.getFloat("speed");
+            int minX = enemyData.getInt("minX");
+            int maxX = enemyData.getInt("maxX");
+            byte reaction = EnemyPool.parseBehaviour(enemyData.getString("behaviour", "patrol"));
+
+            enemies.add(x, y, speed, minX, maxX, reaction);
+        }
+    }
+
+    /**
+     * Create an empty enemy broadphase sized to the current map
+     */
+    private SpatialHash createEnemyHash() {
+        return new SpatialHash(gameMap.getWidthInPixels(), gameMap.getHeightInPixels(),
+                gameMap.getTileWidth() * scaleFactor);
+    }
+
+    public void setGameWon(boolean gameWon) {
+        this.gameWon = gameWon;
+    }
+
+    // Getters
+    public GameMap getGameMap() { return gameMap; }
+    public Player getPlayer() { return player; }
+    public EnemyPool getEnemies() { return enemies; }
+    public AIScheduler getAIScheduler() { return aiScheduler; }
+    public ProjectilePool getProjectiles() { return projectiles; }
+    public ParticleSystem getParticles() { return particles; }
+    public int getScaleFactor() { return scaleFactor; }
+    public boolean isGameWon() { return gameWon; }
+    public long getTick() { return tick; }
+    public String getLevelFile() { return levelFile; }
+    public int getViewWidth() { return viewWidth; }
+    public int getViewHeight() { return viewHeight; }
+}
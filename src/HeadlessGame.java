@@ -0,0 +1,143 @@
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Runs a level without a window: loads the map, drives the player with a simple scripted
+ * bot and ticks the world as fast as the CPU allows, then reports the tick rate.
+ * It can also record the bot's input, or replay a recording (from the game or from here)
+ * at real-time or maximum speed, exiting with status 1 if the final checksum differs.
+ *
+ * Usage: java HeadlessGame [--map=data/map01.json] [--ticks=100000] [--record=file]
+ *        java HeadlessGame --replay=file [--realtime]
+ */
+public class HeadlessGame {
+    // Asset geometry matching the files in data/, so no images need to be loaded
+    private static final String TILESET_FILE = "data/spritesheet.png";  // 8 x 5 tiles
+    private static final int TILESET_COLS = 8;
+    private static final int TILESET_ROWS = 5;
+    private static final int TILE_SIZE = 16;
+    private static final int TILE_COUNT = TILESET_COLS * TILESET_ROWS;
+    private static final int PLAYER_SIZE = 32;       // player.png: 4 x 4 frames
+    private static final int ENEMY_SIZE = 32;        // MouseIdle.png / MouseDie.png: 1 x 6 frames
+    private static final int ENEMY_FRAMES = 6;
+    private static final int SCALE_FACTOR = 4;
+    private static final float PLAYER_SPEED = 11.0f;
+    private static final long TICK_NANOS = 1_000_000_000L / 60;
+
+    // Bot script: turn every so many ticks, fire every so many ticks
+    private static final char[] BOT_DIRECTIONS = {'d', 's', 'a', 'w'};
+    private static final int BOT_TURN_TICKS = 90;
+    private static final int BOT_FIRE_TICKS = 30;
+
+    public static void main(String[] args) throws IOException {
+        String mapFile = "data/map01.json";
+        long ticks = 100_000;
+        String recordFile = null;
+        String replayFile = null;
+        boolean realTime = false;
+        for (String arg : args) {
+            if (arg.startsWith("--map=")) {
+                mapFile = arg.substring("--map=".length());
+            } else if (arg.startsWith("--ticks=")) {
+                ticks = Long.parseLong(arg.substring("--ticks=".length()));
+            } else if (arg.startsWith("--record=")) {
+                recordFile = arg.substring("--record=".length());
+            } else if (arg.startsWith("--replay=")) {
+                replayFile = arg.substring("--replay=".length());
+            } else if (arg.equals("--realtime")) {
+                realTime = true;
+            }
+        }
+
+        if (replayFile != null) {
+            System.exit(replay(new File(replayFile), realTime) ? 0 : 1);
+        }
+
+        GameWorld world = createWorld();
+        InputRecorder recorder = null;
+        if (recordFile != null) {
+            recorder = new InputRecorder(0, 0);
+            world.setAIBudgetMicros(0);
+            world.setRecorder(recorder);
+        }
+        world.loadLevel(mapFile);
+        int enemiesAtStart = world.getEnemies().size();
+
+        long start = System.nanoTime();
+        for (long t = 0; t < ticks; t++) {
+            driveBot(world, t);
+            world.tick();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Map:          " + mapFile);
+        System.out.println("Ticks:        " + ticks + " in " + String.format("%.3f", seconds) + " s");
+        System.out.println("Ticks/second: " + String.format("%.0f", ticks / seconds));
+        System.out.println("Enemies:      " + world.getEnemies().size() + " of " + enemiesAtStart + " left" +
+                (world.isGameWon() ? " (level won)" : ""));
+
+        if (recorder != null) {
+            recorder.finish(world.getTick(), world.checksum());
+            recorder.save(new File(recordFile));
+            System.out.println("Recorded:     " + recordFile + " (" + recorder.size() + " bytes)");
+        }
+    }
+
+    /**
+     * Replays a recording into a fresh world and reports whether it ended in the recorded state
+     */
+    private static boolean replay(File file, boolean realTime) throws IOException {
+        InputReplay replay = new InputReplay(file);
+        GameWorld world = createWorld();
+        world.setAIBudgetMicros(0);
+        world.setViewSize(replay.getViewWidth(), replay.getViewHeight());
+
+        long start = System.nanoTime();
+        while (replay.applyDue(world)) {
+            world.tick();
+            if (realTime) {
+                long due = start + world.getTick() * TICK_NANOS;
+                while (System.nanoTime() < due) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        boolean matches = replay.matches(world);
+        System.out.println("Replay:       " + file + ", " + world.getTick() + " ticks in " +
+                String.format("%.3f", seconds) + " s");
+        System.out.println("Checksum:     " + Long.toHexString(world.checksum()) +
+                (matches ? " (matches)" : " (expected " + Long.toHexString(replay.getExpectedChecksum()) + ")"));
+        return matches;
+    }
+
+    /**
+     * Builds a world with no PApplet; collision masks come from the tileset file when it exists
+     */
+    public static GameWorld createWorld() throws IOException {
+        File tileset = new File(TILESET_FILE);
+        GameMap gameMap = tileset.exists()
+                ? new GameMap(tileset, TILESET_COLS, TILESET_ROWS, SCALE_FACTOR)
+                : new GameMap(TILE_SIZE, TILE_SIZE, TILE_COUNT, SCALE_FACTOR);
+        Player player = new Player(200, 200, PLAYER_SPEED, PLAYER_SIZE, PLAYER_SIZE, SCALE_FACTOR);
+        Enemy enemyType = new Enemy(ENEMY_SIZE, ENEMY_SIZE, ENEMY_FRAMES, ENEMY_FRAMES, SCALE_FACTOR);
+        return new GameWorld(null, gameMap, player, enemyType, SCALE_FACTOR);
+    }
+
+    /**
+     * Scripted input shared with the stress test: walk in a square and shoot at a steady rate
+     */
+    static void driveBot(GameWorld world, long tick) {
+        if (tick % BOT_TURN_TICKS == 0) {
+            int turn = (int) (tick / BOT_TURN_TICKS);
+            if (turn > 0) {
+                world.handleKey(BOT_DIRECTIONS[(turn - 1) % BOT_DIRECTIONS.length], false);
+            }
+            world.handleKey(BOT_DIRECTIONS[turn % BOT_DIRECTIONS.length], true);
+        }
+        if (tick % BOT_FIRE_TICKS == 0) {
+            world.handleKey(' ', true);
+        }
+    }
+}
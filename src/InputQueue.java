@@ -0,0 +1,56 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free single-producer, single-consumer queue of input events packed into ints.
+ * The animation thread offers key events and the simulation thread polls them;
+ * neither side ever blocks or allocates.
+ */
+public class InputQueue {
+    public static final int EMPTY = -1;
+    private static final int PRESSED = 1 << 16;
+
+    private final int[] events;
+    private final int mask;
+    private final AtomicInteger head = new AtomicInteger();  // Next event to read
+    private final AtomicInteger tail = new AtomicInteger();  // Next slot to write
+
+    /**
+     * Creates a queue holding up to capacity events, rounded up to a power of two.
+     */
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        events = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an event; returns false and drops it if the queue is full.
+     */
+    public boolean offer(int event) {
+        int t = tail.get();
+        if (t - head.get() == events.length) return false;
+
+        events[t & mask] = event;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Removes and returns the oldest event, or EMPTY if there is none.
+     */
+    public int poll() {
+        int h = head.get();
+        if (h == tail.get()) return EMPTY;
+
+        int event = events[h & mask];
+        head.lazySet(h + 1);
+        return event;
+    }
+
+    public static int keyEvent(char key, boolean pressed) {
+        return key | (pressed ? PRESSED : 0);
+    }
+
+    public static char keyOf(int event) { return (char) (event & 0xFFFF); }
+    public static boolean isPressed(int event) { return (event & PRESSED) != 0; }
+}
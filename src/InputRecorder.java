@@ -0,0 +1,92 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records every gameplay key event and level load as a compact binary log keyed by
+ * simulation tick, ending with a checksum of the final world state.
+ *
+ * Layout: magic, view width and height, then records of (tick delta, type, payload),
+ * where numbers are unsigned variable-length integers. Most key events take three bytes.
+ */
+public class InputRecorder {
+    static final int MAGIC = 0x52504C31;  // "RPL1"
+
+    // Record types
+    static final int KEY_PRESSED = 1;
+    static final int KEY_RELEASED = 2;
+    static final int LEVEL = 3;
+    static final int END = 4;
+
+    private ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+    private long lastTick = 0;
+    private boolean finished = false;
+
+    /**
+     * Starts a log for a world simulated with the given view size.
+     */
+    public InputRecorder(int viewWidth, int viewHeight) {
+        writeInt(MAGIC);
+        writeVarLong(viewWidth);
+        writeVarLong(viewHeight);
+    }
+
+    public void recordKey(long tick, char key, boolean pressed) {
+        if (finished) return;
+        writeHeader(tick, pressed ? KEY_PRESSED : KEY_RELEASED);
+        writeVarLong(key);
+    }
+
+    public void recordLevel(long tick, String mapFile) {
+        if (finished) return;
+        byte[] name = mapFile.getBytes(StandardCharsets.UTF_8);
+        writeHeader(tick, LEVEL);
+        writeVarLong(name.length);
+        bytes.write(name, 0, name.length);
+    }
+
+    /**
+     * Closes the log with the tick it stopped at and the world checksum at that tick.
+     */
+    public void finish(long tick, long checksum) {
+        if (finished) return;
+        writeHeader(tick, END);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            bytes.write((int) (checksum >>> shift));
+        }
+        finished = true;
+    }
+
+    public void save(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            bytes.writeTo(out);
+        }
+    }
+
+    private void writeHeader(long tick, int type) {
+        writeVarLong(tick - lastTick);
+        bytes.write(type);
+        lastTick = tick;
+    }
+
+    private void writeInt(int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            bytes.write(value >>> shift);
+        }
+    }
+
+    // Seven bits per byte, high bit set on every byte but the last
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        bytes.write((int) value);
+    }
+
+    public int size() { return bytes.size(); }
+    public boolean isFinished() { return finished; }
+}
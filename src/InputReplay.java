@@ -0,0 +1,108 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Plays an {@link InputRecorder} log back into a fresh world: before each tick it applies
+ * the key events and level loads recorded for that tick, and at the end compares the
+ * world checksum with the recorded one.
+ */
+public class InputReplay {
+    private byte[] data;
+    private int position = 0;
+    private int viewWidth, viewHeight;
+
+    // The next record, read ahead so its tick is known
+    private long nextTick = 0;
+    private int nextType;
+    private long expectedChecksum = 0;
+    private boolean ended = false;
+
+    /**
+     * Reads a whole log into memory.
+     */
+    public InputReplay(File file) throws IOException {
+        data = Files.readAllBytes(file.toPath());
+        if (data.length < 4 || readInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not a replay file: " + file);
+        }
+        viewWidth = (int) readVarLong();
+        viewHeight = (int) readVarLong();
+        readHeader();
+    }
+
+    /**
+     * Applies every record due before the world's next tick. Returns false once the
+     * world has reached the tick the recording stopped at.
+     */
+    public boolean applyDue(GameWorld world) {
+        while (!ended && nextTick <= world.getTick()) {
+            switch (nextType) {
+                case InputRecorder.KEY_PRESSED:
+                    world.handleKey((char) readVarLong(), true);
+                    break;
+                case InputRecorder.KEY_RELEASED:
+                    world.handleKey((char) readVarLong(), false);
+                    break;
+                case InputRecorder.LEVEL:
+                    int length = (int) readVarLong();
+                    world.loadLevel(new String(data, position, length, StandardCharsets.UTF_8));
+                    position += length;
+                    break;
+                case InputRecorder.END:
+                    for (int i = 0; i < 8; i++) {
+                        expectedChecksum = (expectedChecksum << 8) | (data[position++] & 0xFF);
+                    }
+                    ended = true;
+                    return false;
+                default:
+                    throw new IllegalStateException("Corrupt replay record type " + nextType);
+            }
+            readHeader();
+        }
+        return true;
+    }
+
+    /**
+     * Whether the world ended the replay in the same state as the recording did.
+     */
+    public boolean matches(GameWorld world) {
+        return ended && world.checksum() == expectedChecksum;
+    }
+
+    private void readHeader() {
+        if (position >= data.length) {
+            throw new IllegalStateException("Replay ends without an end record");
+        }
+        nextTick += readVarLong();
+        nextType = data[position++];
+    }
+
+    private int readInt() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (data[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // Getters
+    public int getViewWidth() { return viewWidth; }
+    public int getViewHeight() { return viewHeight; }
+    public boolean isEnded() { return ended; }
+    public long getEndTick() { return ended ? nextTick : -1; }
+    public long getExpectedChecksum() { return expectedChecksum; }
+}
@@ -0,0 +1,127 @@
+import processing.core.PApplet;
+import processing.core.PGraphics;
+
+/**
+ * Off-screen render cache for a single map layer.
+ * The layer is rasterized into fixed-size chunk images that are rebuilt lazily,
+ * so drawing a view only costs one blit per visible chunk.
+ */
+public class LayerChunkCache {
+    // Chunk size in tiles along each axis
+    public static final int CHUNK_TILES = 16;
+
+    private PApplet p;
+    private PGraphics[][] chunks;
+    private boolean[][] dirty;
+    private boolean[][] empty;
+    private int mapWidth, mapHeight;
+    private int chunkCols, chunkRows;
+    private int tilePixelWidth, tilePixelHeight;
+
+    /**
+     * Creates a cache for a layer of the given size in tiles.
+     */
+    public LayerChunkCache(PApplet p, int mapWidth, int mapHeight, int tilePixelWidth, int tilePixelHeight) {
+        this.p = p;
+        this.mapWidth = mapWidth;
+        this.mapHeight = mapHeight;
+        this.tilePixelWidth = tilePixelWidth;
+        this.tilePixelHeight = tilePixelHeight;
+        this.chunkCols = (mapWidth + CHUNK_TILES - 1) / CHUNK_TILES;
+        this.chunkRows = (mapHeight + CHUNK_TILES - 1) / CHUNK_TILES;
+        this.chunks = new PGraphics[chunkRows][chunkCols];
+        this.dirty = new boolean[chunkRows][chunkCols];
+        this.empty = new boolean[chunkRows][chunkCols];
+        invalidateAll();
+    }
+
+    /**
+     * Marks every chunk for re-rasterization.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < chunkRows; i++) {
+            for (int j = 0; j < chunkCols; j++) {
+                dirty[i][j] = true;
+            }
+        }
+    }
+
+    /**
+     * Marks only the chunk containing the given tile for re-rasterization.
+     */
+    public void invalidateTile(int row, int col) {
+        if (row >= 0 && row < mapHeight && col >= 0 && col < mapWidth) {
+            dirty[row / CHUNK_TILES][col / CHUNK_TILES] = true;
+        }
+    }
+
+    /**
+     * Draws the chunks intersecting the view rectangle (world pixels), rebuilding dirty ones first.
+     * Cells whose entry in the optional visibility mask is false are left out of the chunk.
+     */
+    public void draw(int[][] layer, boolean[][] visible, ScaledFrames tiles, int viewX, int viewY, int viewW, int viewH) {
+        int chunkW = CHUNK_TILES * tilePixelWidth;
+        int chunkH = CHUNK_TILES * tilePixelHeight;
+
+        int startCol = Math.max(0, Math.floorDiv(viewX, chunkW));
+        int startRow = Math.max(0, Math.floorDiv(viewY, chunkH));
+        int endCol = Math.min(chunkCols - 1, Math.floorDiv(viewX + viewW - 1, chunkW));
+        int endRow = Math.min(chunkRows - 1, Math.floorDiv(viewY + viewH - 1, chunkH));
+
+        for (int i = startRow; i <= endRow; i++) {
+            for (int j = startCol; j <= endCol; j++) {
+                if (dirty[i][j]) {
+                    rasterize(layer, visible, tiles, i, j);
+                }
+                if (!empty[i][j]) {
+                    p.image(chunks[i][j], j * chunkW, i * chunkH);
+                }
+            }
+        }
+    }
+
+    // Render all tiles of one chunk into its off-screen image
+    private void rasterize(int[][] layer, boolean[][] visible, ScaledFrames tiles, int chunkRow, int chunkCol) {
+        int firstRow = chunkRow * CHUNK_TILES;
+        int firstCol = chunkCol * CHUNK_TILES;
+        int rows = Math.min(CHUNK_TILES, mapHeight - firstRow);
+        int cols = Math.min(CHUNK_TILES, mapWidth - firstCol);
+
+        dirty[chunkRow][chunkCol] = false;
+        empty[chunkRow][chunkCol] = !hasTiles(layer, firstRow, firstCol, rows, cols);
+        if (empty[chunkRow][chunkCol]) {
+            chunks[chunkRow][chunkCol] = null;  // Nothing to draw, release the image
+            return;
+        }
+
+        PGraphics chunk = chunks[chunkRow][chunkCol];
+        if (chunk == null) {
+            chunk = p.createGraphics(cols * tilePixelWidth, rows * tilePixelHeight);
+            chunks[chunkRow][chunkCol] = chunk;
+        }
+
+        chunk.beginDraw();
+        chunk.noSmooth();
+        chunk.clear();
+        for (int i = 0; i < rows; i++) {
+            int[] row = layer[firstRow + i];
+            boolean[] visibleRow = visible != null ? visible[firstRow + i] : null;
+            for (int j = 0; j < cols; j++) {
+                int tileIndex = row[firstCol + j];
+                if (tileIndex != 0 && (visibleRow == null || visibleRow[firstCol + j])) {  // Skip empty and covered tiles
+                    chunk.image(tiles.get(tileIndex), j * tilePixelWidth, i * tilePixelHeight);
+                }
+            }
+        }
+        chunk.endDraw();
+    }
+
+    private boolean hasTiles(int[][] layer, int firstRow, int firstCol, int rows, int cols) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (layer[firstRow + i][firstCol + j] != 0) return true;
+            }
+        }
+        return false;
+    }
+}
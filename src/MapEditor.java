@@ -107,38 +107,26 @@ public class MapEditor {
         p.pushMatrix();
         p.translate(-editorCameraX, -editorCameraY);
 
-        // Draw background tiles
-        for (int i = 0; i < map.length; i++) {
-            for (int j = 0; j < map[i].length; j++) {
-                // Draw tile
-                p.image(images[map[i][j]],
-                        j * tileW * scaleFactor,
-                        i * tileH * scaleFactor,
-                        tileW * scaleFactor,
-                        tileH * scaleFactor);
-
-                // Always draw grid
-                p.noFill();
-                p.stroke(200, 200, 200, 128);
+        // Draw both layers from the map's chunk caches, limited to the visible area
+        int viewW = screenWidth - editorPanelWidth;
+        gameMap.drawBackgroundLayer(editorCameraX, editorCameraY, viewW, screenHeight);
+        gameMap.drawForegroundLayer(editorCameraX, editorCameraY, viewW, screenHeight);
+
+        // Always draw grid over the visible tiles
+        int startCol = Math.max(0, editorCameraX / (tileW * scaleFactor));
+        int startRow = Math.max(0, editorCameraY / (tileH * scaleFactor));
+        int endCol = Math.min(map[0].length - 1, (editorCameraX + viewW - 1) / (tileW * scaleFactor));
+        int endRow = Math.min(map.length - 1, (editorCameraY + screenHeight - 1) / (tileH * scaleFactor));
+
+        p.noFill();
+        p.stroke(200, 200, 200, 128);
+        for (int i = startRow; i <= endRow; i++) {
+            for (int j = startCol; j <= endCol; j++) {
                 p.rect(j * tileW * scaleFactor, i * tileH * scaleFactor,
                         tileW * scaleFactor, tileH * scaleFactor);
             }
         }
 
-        // Draw foreground tiles
-        for (int i = 0; i < foregroundMap.length; i++) {
-            for (int j = 0; j < foregroundMap[i].length; j++) {
-                int tileIndex = foregroundMap[i][j];
-                if (tileIndex != 0) { // Only draw non-zero foreground tiles
-                    p.image(images[tileIndex],
-                            j * tileW * scaleFactor,
-                            i * tileH * scaleFactor,
-                            tileW * scaleFactor,
-                            tileH * scaleFactor);
-                }
-            }
-        }
-
         p.popMatrix();
 
         // Highlight tile under mouse
@@ -171,18 +159,10 @@ public class MapEditor {
             if (tileX >= 0 && tileX < map[0].length && tileY >= 0 && tileY < map.length) {
                 if (p.mouseButton == PApplet.LEFT) {
                     // Left click - place tile
-                    if (editingForeground) {
-                        foregroundMap[tileY][tileX] = selectedTile;
-                    } else {
-                        map[tileY][tileX] = selectedTile;
-                    }
+                    placeTile(tileY, tileX, selectedTile);
                 } else if (p.mouseButton == PApplet.RIGHT) {
                     // Right click - erase tile
-                    if (editingForeground) {
-                        foregroundMap[tileY][tileX] = 0;
-                    } else {
-                        map[tileY][tileX] = 0;
-                    }
+                    placeTile(tileY, tileX, 0);
                 }
             }
         } else {
@@ -191,6 +171,23 @@ public class MapEditor {
         }
     }
 
+    /**
+     * Writes a tile to the active layer, keeping the game map in sync so its caches see the change.
+     */
+    private void placeTile(int row, int col, int tileIndex) {
+        if (editingForeground) {
+            if (foregroundMap[row][col] != tileIndex) {
+                foregroundMap[row][col] = tileIndex;
+                gameMap.setForegroundTile(row, col, tileIndex);
+            }
+        } else {
+            if (map[row][col] != tileIndex) {
+                map[row][col] = tileIndex;
+                gameMap.setBackgroundTile(row, col, tileIndex);
+            }
+        }
+    }
+
     /**
      * Handles tile selection from the side panel.
      */
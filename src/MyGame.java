@@ -1,37 +1,164 @@
 import processing.core.PApplet;
 import processing.core.PImage;
-import java.util.ArrayList;
-import processing.data.JSONArray;
-import processing.data.JSONObject;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * Main game class that manages the game loop, rendering, input handling, and game states
  */
 public class MyGame extends PApplet {
     // Game components
+    private GameWorld world;
     private Player player;
     private GameMap gameMap;
     private MapEditor editor;
-    private ArrayList<Enemy> enemies;
 
-    // Game state flags
+    // Game state flags. Only showLevelSelect is read by the simulation thread, hence volatile;
+    // the editor flag stays on the render thread, which pauses the simulation while editing.
     private boolean inEditorMode = false;
-    private boolean gameWon = false;
-    private boolean showLevelSelect = false;
+    private volatile boolean showLevelSelect = false;
     private int selectedLevel = 1;
 
     // Display settings
     private int scaleFactor = 4;
     private int cameraX = 0;
     private int cameraY = 0;
+    private GameMap.RenderMode renderMode = GameMap.RenderMode.CHUNKED;
+    private int renderRate = 60;
+
+    // Fixed-timestep simulation: the world advances in whole ticks regardless of render rate
+    private static final int TICK_RATE = 60;
+    private static final long TICK_NANOS = 1_000_000_000L / TICK_RATE;
+    private static final int MAX_TICKS_PER_FRAME = 5;  // Beyond this the world slows rather than spiralling
+    private long lastFrameNanos = 0;
+    private long accumulatorNanos = 0;
+    private float interpolation = 1;  // Fraction of a tick between the last update and now
+
+    // Optional simulation thread; rendering then reads only published snapshots
+    private boolean useSimulationThread = false;
+    private SimulationThread simulation;
+    private SnapshotBuffer snapshots;
+    private InputQueue inputQueue;
+    private long simulationTick = 0;
+
+    // Input recording (--record=file) or replay of a recording (--replay=file)
+    private String recordFile;
+    private String replayFile;
+    private InputRecorder recorder;
+    private InputReplay replay;
+
+    // Rewind (hold R) over the last 10 seconds of ticks, and quick-save (F5) / quick-load (F9)
+    private static final int F5 = 116;
+    private static final int F9 = 120;
+    private RewindBuffer rewindBuffer = new RewindBuffer(8 << 20, 10 * TICK_RATE);
+    private QuickSave quickSave = new QuickSave(4 << 20);
+    private volatile boolean rewinding = false;
+    private volatile boolean quickSaveRequested = false;
+    private volatile boolean quickLoadRequested = false;
+
+    // Stress test (--stress=enemies): scripted play on a growing crowd, then report frame times and exit
+    private String startMap = "data/map01.json";
+    private StressTest stress;
+    private int stressEnemies = 0;
+    private float stressRampSeconds = 10;
+    private float stressDurationSeconds = 30;
+    private float updateBudgetMillis = 0;
+    private float drawBudgetMillis = 0;
+
+    // Per-phase frame profiler: F3 toggles the overlay (--profile shows it at startup), --profile-csv=file logs every frame
+    private static final int F3 = 114;
+    private FrameProfiler profiler;
+    private ProfileCsvExporter profileExporter;
+    private boolean showProfiler = false;
+    private String profileCsvFile;
 
     public static void main(String[] args) {
-        PApplet.main("MyGame");
+        PApplet.main("MyGame", args);
     }
 
     @Override
     public void settings() {
         size(1000, 800);
+        parseArguments();
+    }
+
+    /**
+     * Reads startup options, e.g. --render=software to pick the map render backend
+     */
+    private void parseArguments() {
+        if (args == null) return;
+
+        for (String arg : args) {
+            if (arg.startsWith("--render=")) {
+                String mode = arg.substring("--render=".length());
+                try {
+                    renderMode = GameMap.RenderMode.valueOf(mode.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    println("Unknown render mode '" + mode + "', expected one of " +
+                            Arrays.toString(GameMap.RenderMode.values()) + "; using " + renderMode);
+                }
+            } else if (arg.startsWith("--fps=")) {
+                renderRate = parsePositiveInt("--fps", arg.substring("--fps=".length()), renderRate);
+            } else if (arg.equals("--sim-thread")) {
+                useSimulationThread = true;
+            } else if (arg.startsWith("--record=")) {
+                recordFile = arg.substring("--record=".length());
+            } else if (arg.startsWith("--replay=")) {
+                replayFile = arg.substring("--replay=".length());
+            } else if (arg.startsWith("--map=")) {
+                startMap = arg.substring("--map=".length());
+            } else if (arg.startsWith("--stress=")) {
+                stressEnemies = parsePositiveInt("--stress", arg.substring("--stress=".length()), stressEnemies);
+            } else if (arg.startsWith("--stress-ramp=")) {
+                stressRampSeconds = parseFloatOption("--stress-ramp", arg.substring("--stress-ramp=".length()),
+                        true, stressRampSeconds);
+            } else if (arg.startsWith("--stress-duration=")) {
+                stressDurationSeconds = parseFloatOption("--stress-duration", arg.substring("--stress-duration=".length()),
+                        false, stressDurationSeconds);
+            } else if (arg.startsWith("--update-budget=")) {
+                updateBudgetMillis = parseFloatOption("--update-budget", arg.substring("--update-budget=".length()),
+                        true, updateBudgetMillis);
+            } else if (arg.startsWith("--draw-budget=")) {
+                drawBudgetMillis = parseFloatOption("--draw-budget", arg.substring("--draw-budget=".length()),
+                        true, drawBudgetMillis);
+            } else if (arg.equals("--profile")) {
+                showProfiler = true;
+            } else if (arg.startsWith("--profile-csv=")) {
+                profileCsvFile = arg.substring("--profile-csv=".length());
+            }
+        }
+    }
+
+    /**
+     * Parses a whole-number option that must be above zero; a typo or a bad value is
+     * reported and the current setting kept, as for --render
+     */
+    private int parsePositiveInt(String option, String value, int fallback) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) return parsed;
+        } catch (NumberFormatException e) {
+            // Reported below, like an out of range value
+        }
+        println("Invalid " + option + " value '" + value + "', expected a whole number above 0; using " + fallback);
+        return fallback;
+    }
+
+    /**
+     * Parses a finite decimal option that must be above zero, or zero or more with allowZero;
+     * otherwise it is reported and the current setting kept
+     */
+    private float parseFloatOption(String option, String value, boolean allowZero, float fallback) {
+        try {
+            float parsed = Float.parseFloat(value);
+            if (Float.isFinite(parsed) && (parsed > 0 || (allowZero && parsed == 0))) return parsed;
+        } catch (NumberFormatException e) {
+            // Reported below, like an out of range value
+        }
+        println("Invalid " + option + " value '" + value + "', expected a number " +
+                (allowZero ? "of 0 or more" : "above 0") + "; using " + fallback);
+        return fallback;
     }
 
     /**
@@ -39,6 +166,7 @@ public class MyGame extends PApplet {
      */
     @Override
     public void setup() {
+        frameRate(renderRate);
         background(125, 175, 225);
 
         // Load game assets
@@ -49,28 +177,58 @@ public class MyGame extends PApplet {
 
         // Initialize game components
         gameMap = new GameMap(this, tileset, 8, 5, scaleFactor);
-        gameMap.loadMapFromJSON("data/map01.json");
-
+        gameMap.setRenderMode(renderMode);
         player = new Player(this, playerImg, 200, 200, 11.0f, 4, 4, scaleFactor);
+        Enemy enemyType = new Enemy(this, enemyImg, deathSpritesheet, 1, 6, scaleFactor);
+
+        world = new GameWorld(this, gameMap, player, enemyType, scaleFactor);
+        world.setViewSize(width, height);
+
+        if (stressEnemies > 0) {
+            // Frame times must include the update, so a stress run never uses the simulation thread
+            stress = new StressTest(stressEnemies, stressRampSeconds, stressDurationSeconds, TICK_RATE, 1);
+            stress.setBudgets(updateBudgetMillis, drawBudgetMillis);
+            useSimulationThread = false;
+            world.loadLevel(startMap);
+        } else if (replayFile != null) {
+            // Replays start from the recording's first level and view size, with deterministic AI
+            try {
+                replay = new InputReplay(new File(replayFile));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            world.setAIBudgetMicros(0);
+            world.setViewSize(replay.getViewWidth(), replay.getViewHeight());
+            replay.applyDue(world);
+        } else {
+            if (recordFile != null) {
+                recorder = new InputRecorder(width, height);
+                world.setAIBudgetMicros(0);
+                world.setRecorder(recorder);
+            }
+            world.loadLevel(startMap);
+        }
 
-        // Initialize enemies from map data
-        enemies = new ArrayList<>();
-        JSONArray enemiesArray = gameMap.getEnemiesFromJSON("data/map01.json");
-
-        for (int i = 0; i < enemiesArray.size(); i++) {
-            JSONObject enemyData = enemiesArray.getJSONObject(i);
-
-            float x = enemyData.getFloat("x");
-            float y = enemyData.getFloat("y");
-            float speed = enemyData.getFloat("speed");
-            int minX = enemyData.getInt("minX");
-            int maxX = enemyData.getInt("maxX");
+        editor = new MapEditor(this, gameMap, width, height, scaleFactor);
 
-            enemies.add(new Enemy(this, enemyImg, deathSpritesheet, x, y, speed,
-                    1, 6, minX, maxX, scaleFactor));
+        profiler = new FrameProfiler(this);
+        profiler.setOverlayVisible(showProfiler);
+        if (profileCsvFile != null) {
+            try {
+                profileExporter = new ProfileCsvExporter(new File(profileCsvFile), 4096);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            profileExporter.start();
+            profiler.setExporter(profileExporter);
         }
 
-        editor = new MapEditor(this, gameMap, width, height, scaleFactor);
+        if (useSimulationThread) {
+            snapshots = new SnapshotBuffer();
+            inputQueue = new InputQueue(256);
+            simulation = new SimulationThread(this::simulationTick, TICK_RATE);
+            simulation.start();
+        }
     }
 
     /**
@@ -78,43 +236,162 @@ public class MyGame extends PApplet {
      */
     @Override
     public void draw() {
+        profiler.beginFrame();
         background(125, 175, 225);
 
         if (inEditorMode) {
+            profiler.begin(FrameProfiler.EDITOR);
             editor.draw();
+            profiler.end(FrameProfiler.EDITOR);
+            lastFrameNanos = 0;
         } else {
-            updateGame();
+            if (quickLoadRequested && !showLevelSelect) {
+                quickLoad();
+            }
+
+            // With a simulation thread the update runs elsewhere and is not part of the frame
+            long updateStart = System.nanoTime();
+            if (simulation == null) {
+                profiler.begin(FrameProfiler.UPDATE);
+                stepSimulation();
+                profiler.end(FrameProfiler.UPDATE);
+            }
+            long drawStart = System.nanoTime();
             drawGame();
+
+            if (stress != null) {
+                stress.recordFrame(drawStart - updateStart, System.nanoTime() - drawStart);
+                if (stress.isFinished()) {
+                    int status = stress.report(startMap);
+                    if (profileExporter != null) {
+                        profileExporter.close();
+                    }
+                    System.exit(status);
+                }
+            }
+        }
+
+        profiler.endFrame();
+        profiler.drawOverlay();
+    }
+
+    /**
+     * One tick on the simulation thread: apply queued input, update, publish a snapshot
+     */
+    private void simulationTick() {
+        int event;
+        while ((event = inputQueue.poll()) != InputQueue.EMPTY) {
+            world.handleKey(InputQueue.keyOf(event), InputQueue.isPressed(event));
+        }
+
+        updateGame();
+
+        snapshots.getWriteBuffer().capture(++simulationTick, player, world.getEnemies(),
+                world.getProjectiles(), world.getParticles());
+        snapshots.publish();
+    }
+
+    /**
+     * Run as many fixed ticks as the elapsed time calls for, capped per frame
+     */
+    private void stepSimulation() {
+        long now = System.nanoTime();
+        if (lastFrameNanos == 0) {
+            // First frame, or back from the editor: take one tick and restart the clock
+            lastFrameNanos = now;
+            accumulatorNanos = TICK_NANOS;
+        } else {
+            accumulatorNanos += now - lastFrameNanos;
+            lastFrameNanos = now;
+        }
+
+        int ticks = 0;
+        while (accumulatorNanos >= TICK_NANOS && ticks < MAX_TICKS_PER_FRAME) {
+            updateGame();
+            accumulatorNanos -= TICK_NANOS;
+            ticks++;
         }
+
+        // Drop time we could not catch up on so a long stall does not replay later
+        if (accumulatorNanos >= TICK_NANOS) {
+            accumulatorNanos %= TICK_NANOS;
+        }
+        interpolation = (float) accumulatorNanos / TICK_NANOS;
     }
 
     /**
      * Update game state and handle collisions
      */
     private void updateGame() {
-        if (gameWon || showLevelSelect) return;
+        if (replay != null) {
+            // During a replay the log alone drives the world, level loads included
+            if (replay.isEnded()) return;
+            if (!replay.applyDue(world)) {
+                println("Replay finished at tick " + world.getTick() + ": " +
+                        (replay.matches(world) ? "checksum matches" : "CHECKSUM MISMATCH"));
+                return;
+            }
+        } else if (showLevelSelect) {
+            return;
+        } else if (applyTimeControls()) {
+            return;
+        }
+        if (stress != null) {
+            stress.beforeTick(world);
+        }
+        world.tick();
+        if (stress != null) {
+            stress.afterTick(world);
+        }
 
-        player.update(gameMap, enemies);
+        if (replay == null && recorder == null) {
+            rewindBuffer.capture(world);
+        }
+    }
 
-        for (int i = enemies.size() - 1; i >= 0; i--) {
-            Enemy enemy = enemies.get(i);
-            enemy.update();
+    /**
+     * Handle rewind and quick-save requests at a tick boundary; returns true if this tick was spent rewinding
+     */
+    private boolean applyTimeControls() {
+        // Jumping around in time would make a recording impossible to replay
+        if (recorder != null) return false;
 
-            if (!enemy.isDying) {
-                enemy.checkCollision(player.getX(), player.getY(),
-                        player.getTileWidth() * scaleFactor,
-                        player.getTileHeight() * scaleFactor
-                );
-            }
+        if (quickSaveRequested) {
+            quickSaveRequested = false;
+            quickSave.save(world);
+        }
+        // Quick-loads are left to the render thread, see quickLoad()
+        if (rewinding) {
+            rewindBuffer.rewind(world);
+            return true;
+        }
+        return false;
+    }
 
-            if (enemy.isDeathAnimationComplete()) {
-                enemies.remove(i);
-            }
+    /**
+     * Restore the quick-save on the render thread. Loading it may bring back another level,
+     * which replaces the map the renderer and editor use, so like restartGame() this pauses
+     * the simulation thread and rebuilds the editor for the new map.
+     */
+    private void quickLoad() {
+        quickLoadRequested = false;
+        // Jumping around in time would make a recording impossible to replay
+        if (recorder != null || quickSave.isEmpty()) return;
+
+        if (simulation != null) {
+            simulation.pause();
         }
 
-        // Check win condition
-        if (enemies.isEmpty()) {
-            gameWon = true;
+        boolean levelChanged = quickSave.changesLevel(world);
+        quickSave.load(world);
+        rewindBuffer.clear();
+        if (levelChanged) {
+            editor = new MapEditor(this, gameMap, width, height, scaleFactor);
+            editor.updateFromGameMap(gameMap);
+        }
+
+        if (simulation != null) {
+            simulation.resume();
         }
     }
 
@@ -122,7 +399,7 @@ public class MyGame extends PApplet {
      * Render game elements and UI
      */
     private void drawGame() {
-        if (gameWon) {
+        if (world.isGameWon()) {
             drawWinningScreen();
             return;
         }
@@ -131,14 +408,24 @@ public class MyGame extends PApplet {
             return;
         }
 
+        // With a simulation thread, draw only from the latest snapshot it published
+        RenderSnapshot snapshot = null;
+        float alpha = interpolation;
+        if (simulation != null) {
+            snapshot = snapshots.acquireLatest();
+            alpha = snapshot.interpolation(System.nanoTime(), TICK_NANOS);
+        }
+
         // Camera follows player
+        float playerX = snapshot != null ? snapshot.getPlayerX(alpha) : player.getRenderX(alpha);
+        float playerY = snapshot != null ? snapshot.getPlayerY(alpha) : player.getRenderY(alpha);
         cameraX = constrain(
-                (int) player.getX() - width / 2,
+                (int) playerX - width / 2,
                 0,
                 gameMap.getWidthInPixels() - width
         );
         cameraY = constrain(
-                (int) player.getY() - height / 2,
+                (int) playerY - height / 2,
                 0,
                 gameMap.getHeightInPixels() - height
         );
@@ -147,14 +434,28 @@ public class MyGame extends PApplet {
         pushMatrix();
         translate(-cameraX, -cameraY);
 
-        gameMap.drawBackgroundLayer();
-        player.draw();
+        profiler.begin(FrameProfiler.BACKGROUND);
+        gameMap.drawBackgroundLayer(cameraX, cameraY, width, height);
+        profiler.end(FrameProfiler.BACKGROUND);
+
+        profiler.begin(FrameProfiler.ENTITIES);
+        if (snapshot != null) {
+            snapshot.draw(this, player, world.getEnemies().getType(), world.getProjectiles(), alpha);
+        } else {
+            player.draw(alpha);
 
-        for (Enemy enemy : enemies) {
-            enemy.draw();
+            EnemyPool enemies = world.getEnemies();
+            for (int i = 0; i < enemies.size(); i++) {
+                enemies.draw(i, alpha);
+            }
+            world.getProjectiles().draw(alpha);
+            world.getParticles().draw();
         }
+        profiler.end(FrameProfiler.ENTITIES);
 
-        gameMap.drawForegroundLayer();
+        profiler.begin(FrameProfiler.FOREGROUND);
+        gameMap.drawForegroundLayer(cameraX, cameraY, width, height);
+        profiler.end(FrameProfiler.FOREGROUND);
 
         popMatrix();
     }
@@ -202,38 +503,78 @@ public class MyGame extends PApplet {
      */
     @Override
     public void keyPressed() {
+        if (key == CODED && keyCode == F3) {
+            profiler.setOverlayVisible(!profiler.isOverlayVisible());
+            return;
+        }
+        if (replay != null || stress != null) return;
+
         if (key == 'e' || key == 'E') {
+            // Map edits are not part of the input log, so a replay would diverge from the recording
+            if (recorder != null) {
+                println("The editor is disabled while recording");
+                return;
+            }
             inEditorMode = !inEditorMode;
+
+            // The editor changes the map, so the simulation thread must not run meanwhile
+            if (simulation != null) {
+                if (inEditorMode) {
+                    simulation.pause();
+                } else {
+                    simulation.resume();
+                }
+            }
             return;
         }
 
         if (inEditorMode) {
             editor.keyPressed();
+        } else if (key == 'r' || key == 'R') {
+            rewinding = true;
+        } else if (key == CODED && keyCode == F5) {
+            quickSaveRequested = true;
+        } else if (key == CODED && keyCode == F9) {
+            quickLoadRequested = true;
+        } else if (key == CODED) {
+            return;
+        } else if (simulation != null) {
+            inputQueue.offer(InputQueue.keyEvent(key, true));
         } else {
-            player.keyPressed(key);
+            world.handleKey(key, true);
         }
     }
 
     @Override
     public void keyReleased() {
-        if (!inEditorMode) {
-            player.keyReleased(key);
+        if (inEditorMode || replay != null || stress != null) return;
+
+        if (key == 'r' || key == 'R') {
+            rewinding = false;
+        } else if (key == CODED) {
+            return;
+        } else if (simulation != null) {
+            inputQueue.offer(InputQueue.keyEvent(key, false));
+        } else {
+            world.handleKey(key, false);
         }
     }
 
     @Override
     public void mousePressed() {
+        if (replay != null || stress != null) return;
+
         if (inEditorMode) {
             editor.mousePressed(mouseX, mouseY, mouseButton);
             return;
         }
 
         // Handle UI button clicks
-        if (gameWon) {
+        if (world.isGameWon()) {
             if (mouseX > width / 2 - 100 && mouseX < width / 2 + 100 &&
                     mouseY > height / 2 && mouseY < height / 2 + 50) {
-                gameWon = false;
                 showLevelSelect = true;
+                world.setGameWon(false);
             }
         }
         else if (showLevelSelect) {
@@ -254,33 +595,44 @@ public class MyGame extends PApplet {
      * Reset the game with a new level
      */
     private void restartGame() {
+        if (simulation != null) {
+            simulation.pause();
+        }
+
         showLevelSelect = false;
-        gameWon = false;
 
         String mapFile = "map0" + selectedLevel + ".json";
-        gameMap.loadMapFromJSON(mapFile);
+        world.loadLevel(mapFile);
+        rewindBuffer.clear();
 
         editor = new MapEditor(this, gameMap, width, height, scaleFactor);
         editor.updateFromGameMap(gameMap);
 
-        player.setPosition(200, 200);
-
-        enemies.clear();
-        JSONArray enemiesArray = gameMap.getEnemiesFromJSON(mapFile);
-
-        for (int i = 0; i < enemiesArray.size(); i++) {
-            JSONObject enemyData = enemiesArray.getJSONObject(i);
-
-            float x = enemyData.getFloat("x");
-            float y = enemyData.getFloat("y");
-            float speed = enemyData.getFloat("speed");
-            int minX = enemyData.getInt("minX");
-            int maxX = enemyData.getInt("maxX");
+        if (simulation != null) {
+            simulation.resume();
+        }
+    }
 
-            PImage enemyImg = loadImage("data/MouseIdle.png");
-            PImage deathSpritesheet = loadImage("data/MouseDie.png");
-            enemies.add(new Enemy(this, enemyImg, deathSpritesheet, x, y, speed,
-                    1, 6, minX, maxX, scaleFactor));
+    /**
+     * Save the input recording, if any, when the sketch closes
+     */
+    @Override
+    public void dispose() {
+        if (simulation != null) {
+            simulation.pause();
+        }
+        if (profileExporter != null) {
+            profileExporter.close();
+        }
+        if (recorder != null && !recorder.isFinished()) {
+            recorder.finish(world.getTick(), world.checksum());
+            try {
+                recorder.save(new File(recordFile));
+                println("Recorded " + world.getTick() + " ticks to " + recordFile + " (" + recorder.size() + " bytes)");
+            } catch (IOException e) {
+                println("Could not save recording: " + e.getMessage());
+            }
         }
+        super.dispose();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+import processing.core.PApplet;
+
+/**
+ * Short-lived effect particles (dust, sparks, debris) in a fixed ring buffer of parallel arrays.
+ * New particles overwrite the oldest slot once the buffer is full, so the cap is never exceeded
+ * and emitting never allocates. Each frame runs one integration pass and one batched draw pass.
+ */
+public class ParticleSystem {
+    private PApplet p;
+    private int capacity;
+    private int head = 0;     // Next slot to write
+    private int used = 0;     // Slots written at least once
+    private int liveCount = 0;
+
+    // Position, velocity (world pixels per tick), drag, lifetime and colour
+    private float[] x, y, vx, vy, drag;
+    private int[] life, maxLife;
+    private int[] color;
+    private float[] size;
+
+    private long randomState = 0x2545F4914F6CDD1DL;
+
+    // Time spent in the last update and draw passes
+    private long updateNanos = 0;
+    private long drawNanos = 0;
+
+    /**
+     * Creates a system that holds at most the given number of particles.
+     */
+    public ParticleSystem(PApplet p, int capacity) {
+        this.p = p;
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        drag = new float[capacity];
+        life = new int[capacity];
+        maxLife = new int[capacity];
+        color = new int[capacity];
+        size = new float[capacity];
+    }
+
+    /**
+     * Emits a burst of particles in random directions around a point.
+     */
+    public void burst(float originX, float originY, int count, float speed, int lifetime,
+                      float particleSize, float particleDrag, int rgb) {
+        for (int n = 0; n < count; n++) {
+            double angle = (nextRandom() & 0xffff) / 65536.0 * Math.PI * 2;
+            float velocity = speed * (0.25f + (nextRandom() & 0xff) / 340f);
+
+            int i = head;
+            head = (head + 1) % capacity;
+            if (used < capacity) used++;
+
+            x[i] = originX;
+            y[i] = originY;
+            vx[i] = (float) Math.cos(angle) * velocity;
+            vy[i] = (float) Math.sin(angle) * velocity;
+            drag[i] = particleDrag;
+            life[i] = lifetime - (nextRandom() & 7);
+            maxLife[i] = lifetime;
+            color[i] = rgb;
+            size[i] = particleSize;
+        }
+    }
+
+    /**
+     * Slow grey puffs, e.g. where an enemy fell.
+     */
+    public void dust(float originX, float originY) {
+        burst(originX, originY, 12, 2, 40, 10, 0.9f, 0xFFB4AA96);
+    }
+
+    /**
+     * Fast bright streaks, e.g. where a projectile hit a wall.
+     */
+    public void sparks(float originX, float originY) {
+        burst(originX, originY, 16, 9, 18, 4, 0.85f, 0xFFFFDC64);
+    }
+
+    /**
+     * Chunky pieces flung outward, e.g. from a dying enemy.
+     */
+    public void debris(float originX, float originY) {
+        burst(originX, originY, 24, 6, 36, 6, 0.92f, 0xFF786450);
+    }
+
+    /**
+     * Advances every live particle by one tick and counts the survivors.
+     */
+    public void update() {
+        long start = System.nanoTime();
+        int live = 0;
+        for (int i = 0; i < used; i++) {
+            if (life[i] <= 0) continue;
+
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vx[i] *= drag[i];
+            vy[i] *= drag[i];
+            if (--life[i] > 0) live++;
+        }
+        liveCount = live;
+        updateNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Draws every live particle in world coordinates as one quad batch, fading with age.
+     */
+    public void draw() {
+        long start = System.nanoTime();
+        if (liveCount > 0) {
+            p.noStroke();
+            p.beginShape(PApplet.QUADS);
+            for (int i = 0; i < used; i++) {
+                if (life[i] <= 0) continue;
+
+                float half = size[i] / 2;
+                p.fill(color[i], 255f * life[i] / maxLife[i]);
+                p.vertex(x[i] - half, y[i] - half);
+                p.vertex(x[i] + half, y[i] - half);
+                p.vertex(x[i] + half, y[i] + half);
+                p.vertex(x[i] - half, y[i] + half);
+            }
+            p.endShape();
+            p.stroke(0);
+        }
+        drawNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Copies every live particle into the given arrays, with its fade applied to the
+     * colour's alpha, and returns how many were copied.
+     */
+    public int copyLive(float[] toX, float[] toY, float[] toSize, int[] toColor) {
+        int count = 0;
+        for (int i = 0; i < used; i++) {
+            if (life[i] <= 0) continue;
+
+            int alpha = 255 * life[i] / maxLife[i];
+            toX[count] = x[i];
+            toY[count] = y[i];
+            toSize[count] = size[i];
+            toColor[count] = (alpha << 24) | (color[i] & 0xFFFFFF);
+            count++;
+        }
+        return count;
+    }
+
+    public void clear() {
+        head = 0;
+        used = 0;
+        liveCount = 0;
+    }
+
+    // Seeded xorshift generator so effects are reproducible
+    private int nextRandom() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState >>> 33);
+    }
+
+    // Getters
+    public int getCapacity() { return capacity; }
+    public int getLiveCount() { return liveCount; }
+    public long getUpdateNanos() { return updateNanos; }
+    public long getDrawNanos() { return drawNanos; }
+}
@@ -1,6 +1,6 @@
 import processing.core.PApplet;
 import processing.core.PImage;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 
 /**
  * Player class representing the user-controlled character in the game.
@@ -9,10 +9,11 @@ import java.util.ArrayList;
 public class Player {
     // Core references
     private PApplet p;
-    private PImage[] sprites;
+    private ScaledFrames sprites;
 
     // Position and movement
     private float x, y, speed;
+    private float previousX, previousY;  // Position before the last tick, for interpolated drawing
     private boolean movingUp = false;
     private boolean movingDown = false;
     private boolean movingLeft = false;
@@ -35,6 +36,9 @@ public class Player {
     private int sideOffsetY = 30;
     private int sideWidth, sideHeight;
 
+    // Reused broadphase query results
+    private IntList nearbyEnemies = new IntList();
+
     /**
      * Creates a new player with the specified spritesheet and properties.
      */
@@ -43,21 +47,56 @@ public class Player {
         this.p = p;
         this.x = startX;
         this.y = startY;
+        this.previousX = startX;
+        this.previousY = startY;
         this.speed = speed;
         this.scaleFactor = scaleFactor;
 
         // Extract sprite frames from spritesheet
         this.tileWidth = spritesheet.width / cols;
         this.tileHeight = spritesheet.height / rows;
-        this.sprites = new PImage[cols * rows];
+        PImage[] frames = new PImage[cols * rows];
 
         for (int j = 0; j < rows; j++) {
             for (int i = 0; i < cols; i++) {
-                sprites[i + j * cols] = spritesheet.get(i * tileWidth, j * tileHeight, tileWidth, tileHeight);
+                frames[i + j * cols] = spritesheet.get(i * tileWidth, j * tileHeight, tileWidth, tileHeight);
             }
         }
+        this.sprites = new ScaledFrames(p, frames, scaleFactor);
+
+        updateCollisionBoxes();
+    }
+
+    /**
+     * Creates a headless player with sprite geometry but no images, e.g. for simulation without a window.
+     */
+    public Player(float startX, float startY, float speed, int tileWidth, int tileHeight, int scaleFactor) {
+        this.x = startX;
+        this.y = startY;
+        this.previousX = startX;
+        this.previousY = startY;
+        this.speed = speed;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.scaleFactor = scaleFactor;
+        updateCollisionBoxes();
+    }
+
+    /**
+     * Changes the display scale, rebuilding the scaled sprite frames and collision boxes.
+     */
+    public void setScaleFactor(int scaleFactor) {
+        this.scaleFactor = scaleFactor;
+        if (sprites != null) {
+            sprites.setScaleFactor(scaleFactor);
+        }
+        updateCollisionBoxes();
+    }
 
-        // Set collision box dimensions
+    /**
+     * Sets collision box dimensions for the current scale.
+     */
+    private void updateCollisionBoxes() {
         frontBackWidth = tileWidth * scaleFactor - 2 * frontBackOffsetX;
         frontBackHeight = tileHeight * scaleFactor - 2 * frontBackOffsetY;
         sideWidth = tileWidth * scaleFactor - 2 * sideOffsetX;
@@ -67,7 +106,9 @@ public class Player {
     /**
      * Updates the player's state for the current frame.
      */
-    public void update(GameMap map, ArrayList<Enemy> enemies) {
+    public void update(GameMap map, EnemyPool enemies) {
+        previousX = x;
+        previousY = y;
         updateAnimation();
         updatePosition(map, enemies);
     }
@@ -105,7 +146,7 @@ public class Player {
     /**
      * Updates the player's position based on movement flags and collisions.
      */
-    private void updatePosition(GameMap map, ArrayList<Enemy> enemies) {
+    public void updatePosition(GameMap map, EnemyPool enemies) {
         float newX = x;
         float newY = y;
 
@@ -127,7 +168,7 @@ public class Player {
     /**
      * Checks for collision with map tiles and enemies.
      */
-    private boolean checkCollision(float testX, float testY, GameMap map, ArrayList<Enemy> enemies) {
+    private boolean checkCollision(float testX, float testY, GameMap map, EnemyPool enemies) {
         // Select the appropriate collision box based on direction
         float offsetX, offsetY, boxWidth, boxHeight;
 
@@ -150,9 +191,10 @@ public class Player {
             return true;
         }
 
-        // Check collision with enemies
-        for (Enemy enemy : enemies) {
-            if (enemy.checkCollision(testX + offsetX, testY + offsetY, boxWidth, boxHeight)) {
+        // Check collision with enemies near the box
+        enemies.query(testX + offsetX, testY + offsetY, boxWidth, boxHeight, nearbyEnemies);
+        for (int i = 0; i < nearbyEnemies.size(); i++) {
+            if (enemies.checkCollision(nearbyEnemies.get(i), testX + offsetX, testY + offsetY, boxWidth, boxHeight)) {
                 return true;
             }
         }
@@ -160,15 +202,53 @@ public class Player {
         return false;
     }
 
+    /**
+     * Bytes written by writeState().
+     */
+    public static final int STATE_SIZE = 28;
+
+    /**
+     * Writes position, direction and animation state; movement keys are live input and are not saved.
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putFloat(x).putFloat(y).putFloat(previousX).putFloat(previousY);
+        buffer.putInt(direction).putInt(frame).putInt(animationCounter);
+    }
+
+    public void readState(ByteBuffer buffer) {
+        x = buffer.getFloat();
+        y = buffer.getFloat();
+        previousX = buffer.getFloat();
+        previousY = buffer.getFloat();
+        direction = buffer.getInt();
+        frame = buffer.getInt();
+        animationCounter = buffer.getInt();
+    }
+
     /**
      * Draws the player sprite at the current position.
      */
     public void draw() {
-        p.image(sprites[frame], x, y, tileWidth * scaleFactor, tileHeight * scaleFactor);
+        draw(1);
+    }
+
+    /**
+     * Draws the player sprite between its previous and current tick positions;
+     * alpha is the fraction of a tick elapsed since the last update.
+     */
+    public void draw(float alpha) {
+        p.image(sprites.get(frame), getRenderX(alpha), getRenderY(alpha));
         // Debug: uncomment to show collision box
         // drawCollisionBox();
     }
 
+    /**
+     * Draws one animation frame at the given position, e.g. from a render snapshot.
+     */
+    public void drawFrame(int frame, float drawX, float drawY) {
+        p.image(sprites.get(frame), drawX, drawY);
+    }
+
     /**
      * Draws the player's collision box for debugging purposes.
      */
@@ -231,6 +311,8 @@ public class Player {
     public void setPosition(float newX, float newY) {
         this.x = newX;
         this.y = newY;
+        this.previousX = newX;
+        this.previousY = newY;
     }
 
     public float getX() {
@@ -241,6 +323,22 @@ public class Player {
         return y;
     }
 
+    public float getPreviousX() {
+        return previousX;
+    }
+
+    public float getPreviousY() {
+        return previousY;
+    }
+
+    public float getRenderX(float alpha) {
+        return previousX + (x - previousX) * alpha;
+    }
+
+    public float getRenderY(float alpha) {
+        return previousY + (y - previousY) * alpha;
+    }
+
     public int getTileWidth() {
         return tileWidth;
     }
@@ -248,4 +346,12 @@ public class Player {
     public int getTileHeight() {
         return tileHeight;
     }
+
+    public int getDirection() {
+        return direction;
+    }
+
+    public int getFrame() {
+        return frame;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes per-frame phase times from a {@link FrameProfiler} to a CSV file on a background
+ * thread, for charting long sessions. Frames pass through a preallocated single-producer,
+ * single-consumer ring, so the render thread never blocks on the disk or allocates;
+ * if the writer falls a whole ring behind, frames are dropped and counted instead.
+ */
+public class ProfileCsvExporter implements Runnable {
+    private static final int COLUMNS = FrameProfiler.PHASES + 2;  // Frame number, phases, total
+    private static final long FLUSH_NANOS = 250_000_000L;         // How often the writer wakes up
+
+    private final long[] rows;
+    private final int mask;
+    private final AtomicInteger head = new AtomicInteger();  // Next row to write out
+    private final AtomicInteger tail = new AtomicInteger();  // Next slot to fill
+    private final Writer out;
+    private final Thread thread;
+    private final long[] row = new long[COLUMNS];
+
+    private volatile boolean running = false;
+    private volatile int dropped = 0;
+
+    /**
+     * Opens the file and writes the header; capacity is the number of frames buffered,
+     * rounded up to a power of two.
+     */
+    public ProfileCsvExporter(File file, int capacity) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        rows = new long[size * COLUMNS];
+        mask = size - 1;
+
+        out = new BufferedWriter(new FileWriter(file));
+        out.write("frame");
+        for (String name : FrameProfiler.PHASE_NAMES) {
+            out.write("," + name + "_us");
+        }
+        out.write(",frame_us\n");
+
+        thread = new Thread(this, "profile-csv");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Queues one frame; called from the render thread only.
+     */
+    public boolean offer(long frame, long[] phaseNanos, long totalNanos) {
+        int t = tail.get();
+        if (t - head.get() == mask + 1) {
+            dropped++;
+            return false;
+        }
+
+        int base = (t & mask) * COLUMNS;
+        rows[base] = frame;
+        System.arraycopy(phaseNanos, 0, rows, base + 1, FrameProfiler.PHASES);
+        rows[base + COLUMNS - 1] = totalNanos;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                drain();
+                out.flush();
+                LockSupport.parkNanos(FLUSH_NANOS);
+            }
+            drain();
+            out.close();
+        } catch (IOException e) {
+            System.err.println("Profile export stopped: " + e.getMessage());
+            running = false;
+        }
+    }
+
+    private void drain() throws IOException {
+        int h = head.get();
+        int t = tail.get();
+        for (; h != t; h++) {
+            System.arraycopy(rows, (h & mask) * COLUMNS, row, 0, COLUMNS);
+            head.lazySet(h + 1);
+
+            out.write(Long.toString(row[0]));
+            for (int column = 1; column < COLUMNS; column++) {
+                out.write(',');
+                out.write(Long.toString(row[column] / 1000));
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Writes out what is still queued, closes the file and waits for the thread to finish.
+     */
+    public void close() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Getters
+    public int getDropped() { return dropped; }
+}
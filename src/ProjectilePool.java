@@ -0,0 +1,209 @@
+import processing.core.PApplet;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-capacity projectile storage in parallel primitive arrays.
+ * Projectiles move with swept tests against solid tiles and enemy collision boxes,
+ * so fast shots cannot tunnel, and nothing is allocated once the pool exists.
+ */
+public class ProjectilePool {
+    private PApplet p;
+    private int capacity;
+    private int size = 0;
+
+    // Position, velocity (world pixels per tick) and remaining lifetime in ticks
+    private float[] x, y, vx, vy;
+    private int[] life;
+
+    private int drawSize = 4;  // Drawn square size in world pixels
+    private IntList nearbyEnemies = new IntList();
+    private ParticleSystem particles;
+
+    /**
+     * Creates a pool that holds at most the given number of live projectiles.
+     */
+    public ProjectilePool(PApplet p, int capacity) {
+        this.p = p;
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        life = new int[capacity];
+    }
+
+    /**
+     * Launches a projectile; returns false if the pool is full.
+     */
+    public boolean spawn(float startX, float startY, float velocityX, float velocityY, int lifetime) {
+        if (size == capacity) return false;
+
+        int i = size++;
+        x[i] = startX;
+        y[i] = startY;
+        vx[i] = velocityX;
+        vy[i] = velocityY;
+        life[i] = lifetime;
+        return true;
+    }
+
+    /**
+     * Moves every projectile one tick, removing those that expire or hit a wall or enemy.
+     * Enemies that are hit start their death animation; wall hits throw sparks.
+     */
+    public void update(GameMap map, EnemyPool enemies) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (--life[i] < 0 || move(i, map, enemies)) {
+                remove(i);
+            }
+        }
+    }
+
+    // Sweep one projectile along its velocity; returns true if it hit something
+    private boolean move(int i, GameMap map, EnemyPool enemies) {
+        float dx = vx[i];
+        float dy = vy[i];
+        float travel = (float) Math.sqrt(dx * dx + dy * dy);
+        if (travel == 0) return false;
+
+        // Fraction of this tick's movement at which the first wall is reached
+        float wallDistance = map.raycast(x[i], y[i], dx, dy, travel, null);
+        float hitTime = wallDistance >= 0 ? wallDistance / travel : Float.POSITIVE_INFINITY;
+
+        // Earliest enemy box crossed by the segment, found through the broadphase
+        int hitEnemy = -1;
+        enemies.query(Math.min(x[i], x[i] + dx), Math.min(y[i], y[i] + dy), Math.abs(dx), Math.abs(dy), nearbyEnemies);
+        for (int k = 0; k < nearbyEnemies.size(); k++) {
+            int enemy = nearbyEnemies.get(k);
+            if (!enemies.isAlive(enemy)) continue;
+
+            float t = sweep(x[i], y[i], dx, dy, enemies.getHitboxX(enemy), enemies.getHitboxY(enemy),
+                    enemies.getType().getSideWidth(), enemies.getType().getSideHeight());
+            if (t < hitTime) {
+                hitTime = t;
+                hitEnemy = enemy;
+            }
+        }
+
+        if (hitTime > 1) {
+            x[i] += dx;
+            y[i] += dy;
+            return false;
+        }
+
+        x[i] += dx * hitTime;
+        y[i] += dy * hitTime;
+        if (hitEnemy >= 0) {
+            enemies.kill(hitEnemy);
+        } else if (particles != null) {
+            particles.sparks(x[i], y[i]);
+        }
+        return true;
+    }
+
+    // Slab test: fraction along the segment where it enters the box, or infinity if it misses
+    private static float sweep(float ox, float oy, float dx, float dy,
+                               float boxX, float boxY, float boxWidth, float boxHeight) {
+        float enter = 0;
+        float exit = 1;
+
+        if (dx == 0) {
+            if (ox < boxX || ox > boxX + boxWidth) return Float.POSITIVE_INFINITY;
+        } else {
+            float t1 = (boxX - ox) / dx;
+            float t2 = (boxX + boxWidth - ox) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+
+        if (dy == 0) {
+            if (oy < boxY || oy > boxY + boxHeight) return Float.POSITIVE_INFINITY;
+        } else {
+            float t1 = (boxY - oy) / dy;
+            float t2 = (boxY + boxHeight - oy) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+
+        return enter <= exit ? enter : Float.POSITIVE_INFINITY;
+    }
+
+    private void remove(int i) {
+        int last = --size;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        life[i] = life[last];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Bytes needed by writeState() for the current projectiles.
+     */
+    public int stateSize() {
+        return 4 + size * 20;
+    }
+
+    public void writeState(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putFloat(x[i]).putFloat(y[i]).putFloat(vx[i]).putFloat(vy[i]).putInt(life[i]);
+        }
+    }
+
+    public void readState(ByteBuffer buffer) {
+        size = Math.min(buffer.getInt(), capacity);
+        for (int i = 0; i < size; i++) {
+            x[i] = buffer.getFloat();
+            y[i] = buffer.getFloat();
+            vx[i] = buffer.getFloat();
+            vy[i] = buffer.getFloat();
+            life[i] = buffer.getInt();
+        }
+    }
+
+    /**
+     * Draws all projectiles in world coordinates with a single fill state.
+     */
+    public void draw() {
+        draw(1);
+    }
+
+    /**
+     * Draws all projectiles, backed off along their velocity to where they were
+     * alpha of a tick after the last update.
+     */
+    public void draw(float alpha) {
+        draw(x, y, vx, vy, size, alpha);
+    }
+
+    /**
+     * Draws the first count projectiles from the given arrays the same way, so copies
+     * taken for another thread (see {@link RenderSnapshot}) look identical.
+     */
+    public void draw(float[] x, float[] y, float[] vx, float[] vy, int count, float alpha) {
+        if (count == 0) return;
+
+        p.noStroke();
+        p.fill(255, 230, 120);
+        float half = drawSize / 2f;
+        float back = 1 - alpha;
+        for (int i = 0; i < count; i++) {
+            p.rect(x[i] - vx[i] * back - half, y[i] - vy[i] * back - half, drawSize, drawSize);
+        }
+        p.stroke(0);
+    }
+
+    // Getters
+    public void setParticles(ParticleSystem particles) { this.particles = particles; }
+    public int size() { return size; }
+    public int getCapacity() { return capacity; }
+    public float getX(int i) { return x[i]; }
+    public float getY(int i) { return y[i]; }
+    public float getVelocityX(int i) { return vx[i]; }
+    public float getVelocityY(int i) { return vy[i]; }
+}
@@ -0,0 +1,50 @@
+/**
+ * A single quick-save slot: one snapshot of the world plus the level it was taken on,
+ * so loading it from another level can bring that level back before restoring.
+ */
+public class QuickSave {
+    private final RewindBuffer slot;
+    private String level;
+
+    public QuickSave(int capacityBytes) {
+        slot = new RewindBuffer(capacityBytes, 1);
+    }
+
+    /**
+     * Replaces the slot with the world's current state; returns false if it does not fit.
+     */
+    public boolean save(GameWorld world) {
+        slot.clear();
+        level = slot.capture(world) ? world.getLevelFile() : null;
+        return level != null;
+    }
+
+    /**
+     * Restores the saved state, loading its level first if the world is on another one.
+     * Returns false when nothing has been saved.
+     */
+    public boolean load(GameWorld world) {
+        if (level == null) return false;
+
+        if (changesLevel(world)) {
+            world.loadLevel(level);
+        }
+        return slot.restoreLatest(world);
+    }
+
+    /**
+     * Whether loading would replace the world's map with the saved level's.
+     */
+    public boolean changesLevel(GameWorld world) {
+        return level != null && !level.equals(world.getLevelFile());
+    }
+
+    public void clear() {
+        slot.clear();
+        level = null;
+    }
+
+    // Getters
+    public boolean isEmpty() { return level == null; }
+    public String getLevel() { return level; }
+}
@@ -0,0 +1,135 @@
+import java.util.Arrays;
+import processing.core.PApplet;
+
+/**
+ * Everything the renderer needs from one simulation tick: player, enemy, projectile
+ * and particle draw state, copied into arrays that are reused from tick to tick.
+ * Positions are kept from before and after the tick so drawing can interpolate.
+ */
+public class RenderSnapshot {
+    private long sequence = 0;
+    private long publishNanos = 0;
+
+    // Player
+    private float playerPreviousX, playerPreviousY, playerX, playerY;
+    private int playerFrame;
+
+    // Enemies
+    private int enemyCount = 0;
+    private float[] enemyPreviousX = new float[0], enemyPreviousY = new float[0];
+    private float[] enemyX = new float[0], enemyY = new float[0];
+    private int[] enemyFrame = new int[0], enemyDeathFrame = new int[0];
+    private boolean[] enemyDying = new boolean[0];
+
+    // Projectiles
+    private int projectileCount = 0;
+    private float[] projectileX = new float[0], projectileY = new float[0];
+    private float[] projectileVelocityX = new float[0], projectileVelocityY = new float[0];
+
+    // Particles, with their fade already folded into the colour
+    private int particleCount = 0;
+    private float[] particleX = new float[0], particleY = new float[0], particleSize = new float[0];
+    private int[] particleColor = new int[0];
+
+    /**
+     * Copies the current draw state; arrays only grow when an entity count exceeds them.
+     */
+    public void capture(long sequence, Player player, EnemyPool enemies,
+                        ProjectilePool projectiles, ParticleSystem particles) {
+        this.sequence = sequence;
+
+        playerPreviousX = player.getPreviousX();
+        playerPreviousY = player.getPreviousY();
+        playerX = player.getX();
+        playerY = player.getY();
+        playerFrame = player.getFrame();
+
+        enemyCount = enemies.size();
+        if (enemyX.length < enemyCount) {
+            int capacity = Math.max(enemyCount, enemyX.length * 2);
+            enemyPreviousX = Arrays.copyOf(enemyPreviousX, capacity);
+            enemyPreviousY = Arrays.copyOf(enemyPreviousY, capacity);
+            enemyX = Arrays.copyOf(enemyX, capacity);
+            enemyY = Arrays.copyOf(enemyY, capacity);
+            enemyFrame = Arrays.copyOf(enemyFrame, capacity);
+            enemyDeathFrame = Arrays.copyOf(enemyDeathFrame, capacity);
+            enemyDying = Arrays.copyOf(enemyDying, capacity);
+        }
+        for (int i = 0; i < enemyCount; i++) {
+            enemyPreviousX[i] = enemies.getPreviousX(i);
+            enemyPreviousY[i] = enemies.getPreviousY(i);
+            enemyX[i] = enemies.getX(i);
+            enemyY[i] = enemies.getY(i);
+            enemyFrame[i] = enemies.getFrame(i);
+            enemyDeathFrame[i] = enemies.getDeathFrame(i);
+            enemyDying[i] = enemies.isDying(i);
+        }
+
+        projectileCount = projectiles.size();
+        if (projectileX.length < projectiles.getCapacity()) {
+            projectileX = new float[projectiles.getCapacity()];
+            projectileY = new float[projectiles.getCapacity()];
+            projectileVelocityX = new float[projectiles.getCapacity()];
+            projectileVelocityY = new float[projectiles.getCapacity()];
+        }
+        for (int i = 0; i < projectileCount; i++) {
+            projectileX[i] = projectiles.getX(i);
+            projectileY[i] = projectiles.getY(i);
+            projectileVelocityX[i] = projectiles.getVelocityX(i);
+            projectileVelocityY[i] = projectiles.getVelocityY(i);
+        }
+
+        if (particleX.length < particles.getCapacity()) {
+            particleX = new float[particles.getCapacity()];
+            particleY = new float[particles.getCapacity()];
+            particleSize = new float[particles.getCapacity()];
+            particleColor = new int[particles.getCapacity()];
+        }
+        particleCount = particles.copyLive(particleX, particleY, particleSize, particleColor);
+
+        publishNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns how far (0 to 1) the renderer is into the tick after this snapshot.
+     */
+    public float interpolation(long nowNanos, long tickNanos) {
+        return Math.max(0, Math.min(1, (float) (nowNanos - publishNanos) / tickNanos));
+    }
+
+    /**
+     * Draws the player, enemies, projectiles and particles in world coordinates; the live
+     * objects passed in only supply sprites and draw settings, never positions.
+     */
+    public void draw(PApplet p, Player player, Enemy enemyType, ProjectilePool projectiles, float alpha) {
+        player.drawFrame(playerFrame, getPlayerX(alpha), getPlayerY(alpha));
+
+        for (int i = 0; i < enemyCount; i++) {
+            float x = enemyPreviousX[i] + (enemyX[i] - enemyPreviousX[i]) * alpha;
+            float y = enemyPreviousY[i] + (enemyY[i] - enemyPreviousY[i]) * alpha;
+            enemyType.draw(x, y, enemyFrame[i], enemyDying[i], enemyDeathFrame[i]);
+        }
+
+        projectiles.draw(projectileX, projectileY, projectileVelocityX, projectileVelocityY, projectileCount, alpha);
+
+        p.noStroke();
+        if (particleCount > 0) {
+            p.beginShape(PApplet.QUADS);
+            for (int i = 0; i < particleCount; i++) {
+                float half = particleSize[i] / 2;
+                p.fill(particleColor[i]);
+                p.vertex(particleX[i] - half, particleY[i] - half);
+                p.vertex(particleX[i] + half, particleY[i] - half);
+                p.vertex(particleX[i] + half, particleY[i] + half);
+                p.vertex(particleX[i] - half, particleY[i] + half);
+            }
+            p.endShape();
+        }
+        p.stroke(0);
+    }
+
+    // Getters
+    public long getSequence() { return sequence; }
+    public float getPlayerX(float alpha) { return playerPreviousX + (playerX - playerPreviousX) * alpha; }
+    public float getPlayerY(float alpha) { return playerPreviousY + (playerY - playerPreviousY) * alpha; }
+}
@@ -0,0 +1,114 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Ring of serialized game-state snapshots in one preallocated direct buffer.
+ * Snapshots vary in size with the number of enemies and projectiles, so they are packed
+ * back to back and the oldest ones are overwritten as the write position comes around.
+ * Capturing and restoring copy primitives only and allocate nothing.
+ */
+public class RewindBuffer {
+    private final ByteBuffer data;
+
+    // Index of stored snapshots, oldest first from index 'first'
+    private final int[] offsets;
+    private final int[] lengths;
+    private final long[] ticks;
+    private int first = 0;
+    private int count = 0;
+    private int writePosition = 0;
+
+    /**
+     * Creates a buffer of the given size in bytes holding at most maxSnapshots snapshots.
+     */
+    public RewindBuffer(int capacityBytes, int maxSnapshots) {
+        data = ByteBuffer.allocateDirect(capacityBytes);
+        offsets = new int[maxSnapshots];
+        lengths = new int[maxSnapshots];
+        ticks = new long[maxSnapshots];
+    }
+
+    /**
+     * Stores the world's current state as the newest snapshot, dropping the oldest ones
+     * it overwrites. Returns false if a single snapshot is larger than the whole buffer.
+     */
+    public boolean capture(GameWorld world) {
+        int size = world.stateSize();
+        if (size > data.capacity()) return false;
+
+        int start = writePosition;
+        if (start + size > data.capacity()) {
+            // The tail is too short: everything stored past the write position is from the previous lap
+            while (count > 0 && offsets[first] >= start) {
+                dropOldest();
+            }
+            start = 0;
+        }
+        while (count > 0 && offsets[first] < start + size && offsets[first] + lengths[first] > start) {
+            dropOldest();
+        }
+        if (count == offsets.length) {
+            dropOldest();
+        }
+
+        data.position(start);
+        world.writeState(data);
+
+        int slot = (first + count) % offsets.length;
+        offsets[slot] = start;
+        lengths[slot] = size;
+        ticks[slot] = world.getTick();
+        count++;
+        writePosition = start + size;
+        return true;
+    }
+
+    /**
+     * Restores the newest snapshot older than the world's current tick and removes it, so
+     * repeated calls scrub further back. Returns false when there is nothing left to rewind to.
+     */
+    public boolean rewind(GameWorld world) {
+        // A snapshot of the tick the world is on would restore the state it already has
+        while (count > 0 && getNewestTick() >= world.getTick()) {
+            count--;
+        }
+        if (count == 0) {
+            writePosition = 0;
+            return false;
+        }
+
+        int slot = (first + count - 1) % offsets.length;
+        data.position(offsets[slot]);
+        world.readState(data);
+        count--;
+        writePosition = count == 0 ? 0 : offsets[slot];
+        return true;
+    }
+
+    /**
+     * Restores the newest snapshot and keeps it, e.g. to load a quick-save more than once.
+     */
+    public boolean restoreLatest(GameWorld world) {
+        if (count == 0) return false;
+
+        data.position(offsets[(first + count - 1) % offsets.length]);
+        world.readState(data);
+        return true;
+    }
+
+    public void clear() {
+        first = 0;
+        count = 0;
+        writePosition = 0;
+    }
+
+    private void dropOldest() {
+        first = (first + 1) % offsets.length;
+        count--;
+    }
+
+    // Getters
+    public int size() { return count; }
+    public int getCapacityBytes() { return data.capacity(); }
+    public long getOldestTick() { return count == 0 ? -1 : ticks[first]; }
+    public long getNewestTick() { return count == 0 ? -1 : ticks[(first + count - 1) % offsets.length]; }
+}
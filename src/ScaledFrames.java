@@ -0,0 +1,78 @@
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+
+/**
+ * Cache of animation or tile frames pre-scaled to the current scale factor.
+ * Frames are enlarged once with nearest-neighbour replication so they can be drawn 1:1.
+ */
+public class ScaledFrames {
+    private PApplet p;
+    private PImage[] source;
+    private PImage[] scaled;
+    private int scaleFactor;
+
+    /**
+     * Creates a cache for the given native-size frames.
+     */
+    public ScaledFrames(PApplet p, PImage[] source, int scaleFactor) {
+        this.p = p;
+        this.source = source;
+        this.scaleFactor = scaleFactor;
+        rebuild();
+    }
+
+    /**
+     * Changes the scale factor, rebuilding the scaled frames only if it differs.
+     */
+    public void setScaleFactor(int scaleFactor) {
+        if (scaleFactor != this.scaleFactor) {
+            this.scaleFactor = scaleFactor;
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        scaled = new PImage[source.length];
+        for (int i = 0; i < source.length; i++) {
+            scaled[i] = scale(p, source[i], scaleFactor);
+        }
+    }
+
+    /**
+     * Returns a copy of the image enlarged by an integer factor without filtering.
+     */
+    public static PImage scale(PApplet p, PImage image, int factor) {
+        int w = image.width;
+        int h = image.height;
+        PImage result = p.createImage(w * factor, h * factor, PConstants.ARGB);
+
+        image.loadPixels();
+        result.loadPixels();
+        int[] src = image.pixels;
+        int[] dst = result.pixels;
+        int dstWidth = w * factor;
+
+        for (int y = 0; y < h; y++) {
+            // Expand one source row, then repeat it for the remaining scaled rows
+            int rowStart = y * factor * dstWidth;
+            for (int x = 0; x < w; x++) {
+                int color = src[y * w + x];
+                int offset = rowStart + x * factor;
+                for (int k = 0; k < factor; k++) {
+                    dst[offset + k] = color;
+                }
+            }
+            for (int k = 1; k < factor; k++) {
+                System.arraycopy(dst, rowStart, dst, rowStart + k * dstWidth, dstWidth);
+            }
+        }
+        result.updatePixels();
+        return result;
+    }
+
+    // Getters
+    public PImage get(int index) { return scaled[index]; }
+    public int length() { return scaled.length; }
+    public int getScaleFactor() { return scaleFactor; }
+}
@@ -0,0 +1,142 @@
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+import java.util.Arrays;
+
+/**
+ * Viewport-sized backbuffer for a static map layer that survives between frames.
+ * When the view scrolls, existing pixels are shifted by the camera delta and only
+ * the newly exposed edge strips are rendered with the software blitter. Frames where
+ * neither the view nor the visible tiles changed skip the pixel upload entirely.
+ */
+public class ScrollBuffer {
+    private PApplet p;
+    private PImage buffer;
+    private int lastViewX, lastViewY;
+    private boolean valid = false;
+
+    // Pending world-space region to re-render, empty when dirtyX1 <= dirtyX0
+    private int dirtyX0, dirtyY0, dirtyX1, dirtyY1;
+
+    /**
+     * Creates an empty buffer; it is sized on first draw.
+     */
+    public ScrollBuffer(PApplet p) {
+        this.p = p;
+    }
+
+    /**
+     * Forces the next draw to render the whole view again.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Marks a world-space rectangle for re-rendering on the next draw.
+     */
+    public void invalidateRect(int x, int y, int w, int h) {
+        if (dirtyX1 <= dirtyX0) {
+            dirtyX0 = x;
+            dirtyY0 = y;
+            dirtyX1 = x + w;
+            dirtyY1 = y + h;
+        } else {
+            dirtyX0 = Math.min(dirtyX0, x);
+            dirtyY0 = Math.min(dirtyY0, y);
+            dirtyX1 = Math.max(dirtyX1, x + w);
+            dirtyY1 = Math.max(dirtyY1, y + h);
+        }
+    }
+
+    /**
+     * Brings the buffer up to date for the view rectangle and draws it at the view origin (world pixels).
+     */
+    public void draw(int[][] layer, boolean[][] visible, TileBlitter blitter,
+                     int viewX, int viewY, int viewW, int viewH) {
+        if (buffer == null || buffer.width != viewW || buffer.height != viewH) {
+            buffer = p.createImage(viewW, viewH, PConstants.ARGB);
+            valid = false;
+        }
+
+        int dx = viewX - lastViewX;
+        int dy = viewY - lastViewY;
+        lastViewX = viewX;
+        lastViewY = viewY;
+
+        // Edits outside the view are dropped; they get rendered when they scroll in
+        boolean edited = dirtyX1 > dirtyX0 && dirtyX0 < viewX + viewW && dirtyX1 > viewX &&
+                dirtyY0 < viewY + viewH && dirtyY1 > viewY;
+        if (!edited) {
+            dirtyX1 = dirtyX0;
+        }
+
+        // A still camera over an unchanged layer reuses the pixels already uploaded
+        if (valid && dx == 0 && dy == 0 && !edited) {
+            p.image(buffer, viewX, viewY);
+            return;
+        }
+
+        buffer.loadPixels();
+        if (!valid || Math.abs(dx) >= viewW || Math.abs(dy) >= viewH) {
+            render(layer, visible, blitter, viewX, viewY, 0, 0, viewW, viewH);
+            valid = true;
+            dirtyX1 = dirtyX0;
+        } else if (dx != 0 || dy != 0) {
+            shift(dx, dy);
+
+            // Render the strips that scrolled into view
+            if (dx > 0) render(layer, visible, blitter, viewX, viewY, viewW - dx, 0, dx, viewH);
+            if (dx < 0) render(layer, visible, blitter, viewX, viewY, 0, 0, -dx, viewH);
+            if (dy > 0) render(layer, visible, blitter, viewX, viewY, 0, viewH - dy, viewW, dy);
+            if (dy < 0) render(layer, visible, blitter, viewX, viewY, 0, 0, viewW, -dy);
+        }
+
+        if (dirtyX1 > dirtyX0) {
+            render(layer, visible, blitter, viewX, viewY,
+                    dirtyX0 - viewX, dirtyY0 - viewY, dirtyX1 - dirtyX0, dirtyY1 - dirtyY0);
+            dirtyX1 = dirtyX0;
+        }
+        buffer.updatePixels();
+
+        p.image(buffer, viewX, viewY);
+    }
+
+    // Move existing content by the scroll delta so it keeps its world position
+    private void shift(int dx, int dy) {
+        int[] pixels = buffer.pixels;
+        int w = buffer.width;
+        int h = buffer.height;
+        int copyWidth = w - Math.abs(dx);
+        int srcX = Math.max(dx, 0);
+        int dstX = Math.max(-dx, 0);
+
+        if (dy >= 0) {
+            for (int y = 0; y < h - dy; y++) {
+                System.arraycopy(pixels, (y + dy) * w + srcX, pixels, y * w + dstX, copyWidth);
+            }
+        } else {
+            for (int y = h - 1; y >= -dy; y--) {
+                System.arraycopy(pixels, (y + dy) * w + srcX, pixels, y * w + dstX, copyWidth);
+            }
+        }
+    }
+
+    // Clear a buffer-space rectangle and blit the layer into it
+    private void render(int[][] layer, boolean[][] visible, TileBlitter blitter,
+                        int viewX, int viewY, int x, int y, int w, int h) {
+        int[] pixels = buffer.pixels;
+        int x0 = Math.max(0, x);
+        int y0 = Math.max(0, y);
+        int x1 = Math.min(buffer.width, x + w);
+        int y1 = Math.min(buffer.height, y + h);
+        if (x0 >= x1 || y0 >= y1) return;
+
+        for (int row = y0; row < y1; row++) {
+            int offset = row * buffer.width;
+            Arrays.fill(pixels, offset + x0, offset + x1, 0);
+        }
+        blitter.blitLayer(layer, visible, pixels, buffer.width, buffer.height,
+                viewX, viewY, x0, y0, x1 - x0, y1 - y0);
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a tick callback at a fixed rate on its own daemon thread, so simulation cost
+ * and render cost no longer delay each other. The owner can pause the thread to
+ * change shared state (loading a level, editing the map) and resume it afterwards.
+ */
+public class SimulationThread implements Runnable {
+    private static final int MAX_TICKS_BEHIND = 5;  // Beyond this the clock is reset instead of catching up
+
+    private final Runnable tick;
+    private final long tickNanos;
+    private final Thread thread;
+
+    private volatile boolean running = false;
+    private volatile boolean paused = false;
+    private volatile boolean idle = false;  // Set by the simulation thread once it has seen a pause
+
+    /**
+     * Creates a stopped simulation thread that calls tick the given number of times per second.
+     */
+    public SimulationThread(Runnable tick, int ticksPerSecond) {
+        this.tick = tick;
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.thread = new Thread(this, "simulation");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Stops ticking and returns once any tick in progress has finished.
+     */
+    public void pause() {
+        paused = true;
+        while (running && thread.isAlive() && !idle) {
+            Thread.yield();
+        }
+    }
+
+    public void resume() {
+        paused = false;
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            // Clear idle before checking the flag, so pause() cannot see a stale idle and return mid-tick
+            idle = false;
+            if (paused) {
+                idle = true;
+                LockSupport.parkNanos(1_000_000);
+                nextTick = System.nanoTime();
+                continue;
+            }
+
+            tick.run();
+            nextTick += tickNanos;
+
+            long wait = nextTick - System.nanoTime();
+            if (-wait > MAX_TICKS_BEHIND * tickNanos) {
+                nextTick = System.nanoTime();
+            }
+            // parkNanos may return early, so sleep until the tick is actually due
+            while (wait > 0 && running && !paused) {
+                LockSupport.parkNanos(wait);
+                wait = nextTick - System.nanoTime();
+            }
+        }
+    }
+
+    public boolean isRunning() { return running; }
+}
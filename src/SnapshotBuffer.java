@@ -0,0 +1,44 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free hand-over of render snapshots from the simulation thread to the renderer.
+ * Three snapshots rotate: the writer fills its own, the reader draws its own, and the
+ * latest complete one waits in between. Swapping is a single atomic exchange on each
+ * side, so neither thread ever waits for the other or sees a half-written snapshot.
+ */
+public class SnapshotBuffer {
+    private RenderSnapshot writing;
+    private RenderSnapshot reading;
+    private final AtomicReference<RenderSnapshot> latest;
+
+    public SnapshotBuffer() {
+        writing = new RenderSnapshot();
+        reading = new RenderSnapshot();
+        latest = new AtomicReference<>(new RenderSnapshot());
+    }
+
+    /**
+     * Returns the snapshot the simulation thread may fill next.
+     */
+    public RenderSnapshot getWriteBuffer() {
+        return writing;
+    }
+
+    /**
+     * Makes the filled write buffer the latest snapshot and takes back a free one.
+     */
+    public void publish() {
+        writing = latest.getAndSet(writing);
+    }
+
+    /**
+     * Returns the newest published snapshot, swapping it in only if it is newer
+     * than the one the renderer already holds.
+     */
+    public RenderSnapshot acquireLatest() {
+        if (latest.get().getSequence() > reading.getSequence()) {
+            reading = latest.getAndSet(reading);
+        }
+        return reading;
+    }
+}
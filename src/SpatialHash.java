@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+/**
+ * Uniform grid broadphase with one bucket per tile-sized cell.
+ * Entries are integer ids filed by the top-left corner of their collision box; each
+ * bucket is an intrusive doubly linked list, so moving between buckets is O(1) and
+ * only happens when an entry crosses a cell boundary.
+ */
+public class SpatialHash {
+    private int[] heads;
+    private int[] next, prev, bucketOf;
+    private int cols, rows;
+    private int cellSize;
+
+    /**
+     * Creates a hash covering a world of the given size in pixels.
+     * Collision boxes must not be larger than one cell.
+     */
+    public SpatialHash(int worldWidth, int worldHeight, int cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (worldWidth + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (worldHeight + cellSize - 1) / cellSize);
+        this.heads = new int[cols * rows];
+        Arrays.fill(heads, -1);
+
+        next = new int[64];
+        prev = new int[64];
+        bucketOf = new int[64];
+        Arrays.fill(bucketOf, -1);
+    }
+
+    public void insert(int id, float x, float y) {
+        ensureCapacity(id + 1);
+        link(id, bucketFor(x, y));
+    }
+
+    public void remove(int id) {
+        if (id < bucketOf.length && bucketOf[id] >= 0) {
+            unlink(id);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(heads, -1);
+        Arrays.fill(bucketOf, -1);
+    }
+
+    /**
+     * Moves an entry to a new bucket if its position has crossed a cell boundary.
+     */
+    public void update(int id, float x, float y) {
+        int bucket = bucketFor(x, y);
+        if (bucket != bucketOf[id]) {
+            unlink(id);
+            link(id, bucket);
+        }
+    }
+
+    /**
+     * Collects the ids whose buckets may hold a collision box overlapping the region.
+     * The result list is cleared first so callers can reuse it every frame.
+     */
+    public void query(float x, float y, float width, float height, IntList result) {
+        result.clear();
+
+        // Boxes are filed by their top-left corner, so look one cell further up and left
+        int startCol = clampCol((int) Math.floor(x / cellSize) - 1);
+        int startRow = clampRow((int) Math.floor(y / cellSize) - 1);
+        int endCol = clampCol((int) Math.floor((x + width) / cellSize));
+        int endRow = clampRow((int) Math.floor((y + height) / cellSize));
+
+        for (int row = startRow; row <= endRow; row++) {
+            for (int col = startCol; col <= endCol; col++) {
+                for (int id = heads[row * cols + col]; id >= 0; id = next[id]) {
+                    result.add(id);
+                }
+            }
+        }
+    }
+
+    private void link(int id, int bucket) {
+        int head = heads[bucket];
+        next[id] = head;
+        prev[id] = -1;
+        if (head >= 0) prev[head] = id;
+        heads[bucket] = id;
+        bucketOf[id] = bucket;
+    }
+
+    private void unlink(int id) {
+        int bucket = bucketOf[id];
+        if (prev[id] >= 0) {
+            next[prev[id]] = next[id];
+        } else {
+            heads[bucket] = next[id];
+        }
+        if (next[id] >= 0) prev[next[id]] = prev[id];
+        bucketOf[id] = -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bucketOf.length) {
+            int newCapacity = Math.max(capacity, bucketOf.length * 2);
+            int oldCapacity = bucketOf.length;
+            next = Arrays.copyOf(next, newCapacity);
+            prev = Arrays.copyOf(prev, newCapacity);
+            bucketOf = Arrays.copyOf(bucketOf, newCapacity);
+            Arrays.fill(bucketOf, oldCapacity, newCapacity, -1);
+        }
+    }
+
+    private int bucketFor(float x, float y) {
+        int col = clampCol((int) Math.floor(x / cellSize));
+        int row = clampRow((int) Math.floor(y / cellSize));
+        return row * cols + col;
+    }
+
+    private int clampCol(int col) { return Math.max(0, Math.min(cols - 1, col)); }
+    private int clampRow(int row) { return Math.max(0, Math.min(rows - 1, row)); }
+}
@@ -0,0 +1,161 @@
+import java.util.Random;
+
+/**
+ * Load test for a whole level: ramps the enemy count up to a target over the first part of
+ * the run, drives the player with the headless bot, and collects update and draw times
+ * per frame. When the run is over it prints their percentiles, how many AI decisions the
+ * scheduler had to defer, and whether the times stayed within the budgets, so a build
+ * script can fail on the exit status.
+ */
+public class StressTest {
+    private static final int SPAWN_ATTEMPTS = 32;  // Random tries to find an open spot per enemy
+    private static final int PATROL_TILES = 3;     // Patrol range either side of the spawn point
+
+    private final int targetEnemies;
+    private final long rampTicks;
+    private final long durationTicks;
+    private final Random random;
+
+    // Budgets for the 99th percentile in nanoseconds; zero means no limit
+    private long updateBudgetNanos = 0;
+    private long drawBudgetNanos = 0;
+
+    private final TimeHistogram updateTimes = new TimeHistogram();
+    private final TimeHistogram drawTimes = new TimeHistogram();
+    private long ticks = 0;
+    private int peakEnemies = 0;
+
+    // AI decisions made and put off to a later tick by the scheduler's time budget
+    private long decisions = 0;
+    private long deferred = 0;
+    private int peakDeferred = 0;
+    private long deferringTicks = 0;
+
+    /**
+     * Creates a run of the given length that reaches targetEnemies after rampSeconds.
+     */
+    public StressTest(int targetEnemies, float rampSeconds, float durationSeconds, int tickRate, long seed) {
+        this.targetEnemies = targetEnemies;
+        this.rampTicks = Math.max(1, (long) (rampSeconds * tickRate));
+        this.durationTicks = (long) (durationSeconds * tickRate);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Sets the p99 budgets in milliseconds; zero disables a check.
+     */
+    public void setBudgets(float updateMillis, float drawMillis) {
+        updateBudgetNanos = (long) (updateMillis * 1_000_000);
+        drawBudgetNanos = (long) (drawMillis * 1_000_000);
+    }
+
+    /**
+     * Called before every world tick: applies the bot's input and tops the enemies up to
+     * the ramp's current target, replacing those the player has shot.
+     */
+    public void beforeTick(GameWorld world) {
+        HeadlessGame.driveBot(world, ticks);
+
+        long target = targetEnemies * Math.min(ticks + 1, rampTicks) / rampTicks;
+        EnemyPool enemies = world.getEnemies();
+        while (enemies.size() < target) {
+            if (!spawn(world)) break;  // No open spot this tick; try again on the next
+        }
+        peakEnemies = Math.max(peakEnemies, enemies.size());
+
+        // Clearing the level would stop the world; the stress test keeps it running
+        world.setGameWon(false);
+        ticks++;
+    }
+
+    /**
+     * Called after every world tick: collects how much AI work the scheduler got through.
+     */
+    public void afterTick(GameWorld world) {
+        AIScheduler scheduler = world.getAIScheduler();
+        int deferredThisTick = scheduler.getDeferredLastFrame();
+        decisions += scheduler.getDecisionsLastFrame();
+        deferred += deferredThisTick;
+        peakDeferred = Math.max(peakDeferred, deferredThisTick);
+        if (deferredThisTick > 0) {
+            deferringTicks++;
+        }
+    }
+
+    /**
+     * Adds one enemy with a random behaviour at a random spot clear of walls and the player.
+     */
+    private boolean spawn(GameWorld world) {
+        GameMap gameMap = world.getGameMap();
+        EnemyPool enemies = world.getEnemies();
+        Enemy type = enemies.getType();
+        Player player = world.getPlayer();
+        int tileWidth = gameMap.getScaledTileWidth();
+        float safeDistance = 4 * tileWidth;
+
+        for (int attempt = 0; attempt < SPAWN_ATTEMPTS; attempt++) {
+            float x = random.nextFloat() * (gameMap.getWidthInPixels() - type.getSpriteWidth());
+            float y = random.nextFloat() * (gameMap.getHeightInPixels() - type.getSpriteHeight());
+
+            if (Math.abs(x - player.getX()) < safeDistance && Math.abs(y - player.getY()) < safeDistance) continue;
+            if (gameMap.checkCollision(x + type.getSideOffsetX(), y + type.getSideOffsetY(),
+                    type.getSideWidth(), type.getSideHeight())) continue;
+
+            float speed = 1 + random.nextFloat() * 3;
+            int range = PATROL_TILES * tileWidth;
+            byte reaction = (byte) random.nextInt(EnemyPool.WANDER + 1);
+            enemies.add(x, y, speed, (int) x - range, (int) x + range, reaction);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records the time one frame spent updating and drawing.
+     */
+    public void recordFrame(long updateNanos, long drawNanos) {
+        updateTimes.record(updateNanos);
+        drawTimes.record(drawNanos);
+    }
+
+    public boolean isFinished() {
+        return ticks >= durationTicks;
+    }
+
+    /**
+     * Prints the percentiles and returns the exit status: 0 within budget, 1 over it.
+     */
+    public int report(String mapFile) {
+        boolean updateOk = updateBudgetNanos <= 0 || updateTimes.percentileNanos(99) <= updateBudgetNanos;
+        boolean drawOk = drawBudgetNanos <= 0 || drawTimes.percentileNanos(99) <= drawBudgetNanos;
+
+        System.out.println("Stress test:  " + mapFile + ", " + ticks + " ticks, " + updateTimes.getCount() +
+                " frames, up to " + peakEnemies + " enemies (target " + targetEnemies + ")");
+        System.out.println(formatLine("Update", updateTimes, updateBudgetNanos, updateOk));
+        System.out.println(formatLine("Draw", drawTimes, drawBudgetNanos, drawOk));
+        long perTick = Math.max(1, ticks);
+        System.out.println(String.format("%-13s %.1f decisions and %.1f deferred per tick, peak %d deferred, " +
+                "%d of %d ticks over budget", "AI:", (double) decisions / perTick, (double) deferred / perTick,
+                peakDeferred, deferringTicks, ticks));
+        return updateOk && drawOk ? 0 : 1;
+    }
+
+    private static String formatLine(String name, TimeHistogram times, long budgetNanos, boolean ok) {
+        String line = String.format("%-13s p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms", name + ":",
+                times.percentileNanos(50) / 1e6, times.percentileNanos(95) / 1e6,
+                times.percentileNanos(99) / 1e6, times.getMaxNanos() / 1e6);
+        if (budgetNanos > 0) {
+            line += String.format(" (p99 budget %.2f ms%s)", budgetNanos / 1e6, ok ? "" : ", EXCEEDED");
+        }
+        return line;
+    }
+
+    // Getters
+    public long getTicks() { return ticks; }
+    public int getPeakEnemies() { return peakEnemies; }
+    public long getDecisions() { return decisions; }
+    public long getDeferred() { return deferred; }
+    public int getPeakDeferred() { return peakDeferred; }
+    public TimeHistogram getUpdateTimes() { return updateTimes; }
+    public TimeHistogram getDrawTimes() { return drawTimes; }
+}
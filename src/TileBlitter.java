@@ -0,0 +1,107 @@
+import processing.core.PImage;
+
+/**
+ * Software tile renderer that writes map layers straight into an ARGB pixel buffer.
+ * Tiles are enlarged by integer replication (nearest neighbour) and fully transparent
+ * pixels are skipped, so no Graphics2D state changes or interpolation are involved.
+ */
+public class TileBlitter {
+    private int[][] tilePixels;
+    private int tileWidth, tileHeight;
+    private int scaleFactor;
+
+    /**
+     * Creates a blitter for the given native-size tiles.
+     */
+    public TileBlitter(PImage[] tiles, int tileWidth, int tileHeight, int scaleFactor) {
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.scaleFactor = scaleFactor;
+
+        tilePixels = new int[tiles.length][];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i].loadPixels();
+            tilePixels[i] = tiles[i].pixels;
+        }
+    }
+
+    public void setScaleFactor(int scaleFactor) {
+        this.scaleFactor = scaleFactor;
+    }
+
+    /**
+     * Draws a layer into the target buffer. Target pixel (0, 0) shows world pixel (viewX, viewY),
+     * and only target pixels inside the clip rectangle are written. Cells whose entry in the
+     * optional visibility mask is false are skipped.
+     */
+    public void blitLayer(int[][] layer, boolean[][] visible, int[] target, int targetWidth, int targetHeight,
+                          int viewX, int viewY, int clipX, int clipY, int clipW, int clipH) {
+        int scaledWidth = tileWidth * scaleFactor;
+        int scaledHeight = tileHeight * scaleFactor;
+        int mapRows = layer.length;
+        int mapCols = layer[0].length;
+
+        // Clip to the target buffer and to the world-space extent of the map
+        int x0 = Math.max(Math.max(0, clipX), -viewX);
+        int y0 = Math.max(Math.max(0, clipY), -viewY);
+        int x1 = Math.min(Math.min(targetWidth, clipX + clipW), mapCols * scaledWidth - viewX);
+        int y1 = Math.min(Math.min(targetHeight, clipY + clipH), mapRows * scaledHeight - viewY);
+        if (x0 >= x1 || y0 >= y1) return;
+
+        for (int ty = y0; ty < y1; ty++) {
+            int worldY = viewY + ty;
+            int tileRow = worldY / scaledHeight;
+            int srcRowOffset = (worldY - tileRow * scaledHeight) / scaleFactor * tileWidth;
+            int[] row = layer[tileRow];
+            boolean[] visibleRow = visible != null ? visible[tileRow] : null;
+            int targetRow = ty * targetWidth;
+
+            int tx = x0;
+            while (tx < x1) {
+                int worldX = viewX + tx;
+                int tileCol = worldX / scaledWidth;
+                int spanEnd = Math.min(x1, (tileCol + 1) * scaledWidth - viewX);
+                int tileIndex = row[tileCol];
+
+                if (tileIndex != 0 && (visibleRow == null || visibleRow[tileCol])) {  // Skip empty and covered tiles
+                    blitSpan(tilePixels[tileIndex], srcRowOffset, worldX - tileCol * scaledWidth,
+                            target, targetRow + tx, spanEnd - tx);
+                }
+                tx = spanEnd;
+            }
+        }
+    }
+
+    // Copy one horizontal run of a tile row, replicating each source pixel scaleFactor times
+    private void blitSpan(int[] src, int srcRowOffset, int localX, int[] target, int targetIndex, int length) {
+        int srcIndex = srcRowOffset + localX / scaleFactor;
+        int repeat = localX % scaleFactor;
+        int color = src[srcIndex];
+        int end = targetIndex + length;
+
+        for (int i = targetIndex; i < end; i++) {
+            int alpha = color >>> 24;
+            if (alpha == 255) {
+                target[i] = color;
+            } else if (alpha != 0) {
+                target[i] = blend(color, target[i]);
+            }
+
+            if (++repeat == scaleFactor) {
+                repeat = 0;
+                if (i + 1 < end) color = src[++srcIndex];
+            }
+        }
+    }
+
+    // Source-over blend for partially transparent tile pixels
+    private static int blend(int src, int dst) {
+        if ((dst >>> 24) == 0) return src;
+
+        int a = src >>> 24;
+        int ia = 255 - a;
+        int rb = (((src & 0xff00ff) * a + (dst & 0xff00ff) * ia) >>> 8) & 0xff00ff;
+        int g = (((src & 0x00ff00) * a + (dst & 0x00ff00) * ia) >>> 8) & 0x00ff00;
+        return 0xff000000 | rb | g;
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of durations in 10 microsecond buckets up to 100 ms, with anything
+ * longer counted in an overflow bucket. Recording is a couple of array writes and never
+ * allocates, so it can run every frame; percentiles are accurate to one bucket.
+ */
+public class TimeHistogram {
+    private static final long BUCKET_NANOS = 10_000;
+    private static final int BUCKETS = 10_000;
+
+    private final int[] counts = new int[BUCKETS + 1];  // Last bucket holds overflow
+    private long count = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+
+    public void record(long nanos) {
+        int bucket = (int) Math.min(Math.max(nanos, 0) / BUCKET_NANOS, BUCKETS);
+        counts[bucket]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    /**
+     * Upper edge of the bucket holding the given percentile (0-100), or the maximum
+     * for the overflow bucket and the 100th percentile.
+     */
+    public long percentileNanos(double percentile) {
+        if (count == 0) return 0;
+
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        if (rank >= count) return maxNanos;
+
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min((bucket + 1) * BUCKET_NANOS, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    // Getters
+    public long getCount() { return count; }
+    public long getMaxNanos() { return maxNanos; }
+    public long getMeanNanos() { return count == 0 ? 0 : totalNanos / count; }
+}
@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AISchedulerTest {
+    private static final int ENEMIES = 40;
+    private static final float PLAYER_X = 500;
+    private static final float PLAYER_Y = 500;
+
+    private EnemyPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new EnemyPool(new Enemy(32, 32, 6, 6, 4), ENEMIES);
+        for (int i = 0; i < ENEMIES; i++) {
+            pool.add(400 + i, 400, 1, 0, 9000, EnemyPool.CHASE);
+        }
+    }
+
+    // A scheduler whose clock moves on by one microsecond every time it is read
+    private static AIScheduler withTickingClock(int budgetMicros) {
+        return new AIScheduler(budgetMicros) {
+            private long now = 0;
+
+            @Override
+            long nanoTime() {
+                now += 1000;
+                return now;
+            }
+        };
+    }
+
+    private int chasing() {
+        int count = 0;
+        for (int i = 0; i < pool.size(); i++) {
+            if (pool.getBehaviour(i) == EnemyPool.CHASE) count++;
+        }
+        return count;
+    }
+
+    @Test
+    void anUnlimitedBudgetDecidesForEveryEnemy() {
+        AIScheduler scheduler = withTickingClock(0);
+        scheduler.run(pool, PLAYER_X, PLAYER_Y);
+
+        assertEquals(ENEMIES, scheduler.getDecisionsLastFrame());
+        assertEquals(0, scheduler.getDeferredLastFrame());
+        assertEquals(ENEMIES, chasing());
+
+        AIScheduler negative = withTickingClock(-5);
+        negative.run(pool, PLAYER_X, PLAYER_Y);
+        assertEquals(ENEMIES, negative.getDecisionsLastFrame());
+        assertEquals(0, negative.getDeferredLastFrame());
+    }
+
+    @Test
+    void aSpentBudgetDefersTheRest() {
+        // The clock is checked every 16 decisions and has then moved past the budget
+        AIScheduler scheduler = withTickingClock(1);
+        scheduler.run(pool, PLAYER_X, PLAYER_Y);
+
+        assertEquals(16, scheduler.getDecisionsLastFrame());
+        assertEquals(ENEMIES - 16, scheduler.getDeferredLastFrame());
+        assertEquals(16, chasing());
+        assertEquals(EnemyPool.PATROL, pool.getBehaviour(16));
+    }
+
+    @Test
+    void theNextRunResumesWhereTheLastStopped() {
+        AIScheduler scheduler = withTickingClock(1);
+        scheduler.run(pool, PLAYER_X, PLAYER_Y);
+        assertEquals(16, scheduler.getCursor());
+
+        scheduler.run(pool, PLAYER_X, PLAYER_Y);
+        assertEquals(32, scheduler.getCursor());
+        assertEquals(EnemyPool.CHASE, pool.getBehaviour(31));
+        assertEquals(EnemyPool.PATROL, pool.getBehaviour(32));
+
+        // The third run wraps around to the start
+        scheduler.run(pool, PLAYER_X, PLAYER_Y);
+        assertEquals(ENEMIES, chasing());
+        assertEquals((32 + 16) % ENEMIES, scheduler.getCursor());
+    }
+
+    @Test
+    void aCursorPastTheEndStartsOver() {
+        AIScheduler scheduler = withTickingClock(1);
+        scheduler.setCursor(ENEMIES + 10);
+        scheduler.run(pool, PLAYER_X, PLAYER_Y);
+
+        assertEquals(16, scheduler.getCursor());
+        assertEquals(EnemyPool.CHASE, pool.getBehaviour(0));
+    }
+
+    @Test
+    void enemiesWithNothingToDecideStillTakeTheirTurn() {
+        EnemyPool patrols = new EnemyPool(new Enemy(32, 32, 6, 6, 4), 4);
+        for (int i = 0; i < 4; i++) {
+            patrols.add(400, 400, 1, 0, 9000);
+        }
+        AIScheduler scheduler = withTickingClock(0);
+        scheduler.run(patrols, PLAYER_X, PLAYER_Y);
+
+        assertEquals(0, scheduler.getDecisionsLastFrame());
+        assertEquals(0, scheduler.getDeferredLastFrame());
+    }
+}
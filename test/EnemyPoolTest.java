@@ -0,0 +1,301 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EnemyPoolTest {
+    private static final float SPEED = 2;
+    private static final float FAR = -10_000;  // Player box position that touches nobody
+
+    private Enemy type;
+    private EnemyPool pool;
+    private IntList found = new IntList();
+
+    @BeforeEach
+    void setUp() {
+        type = new Enemy(32, 32, 6, 6, 4);
+        pool = new EnemyPool(type, 4);
+        pool.setSpatialHash(new SpatialHash(10_000, 1_000, 64));
+        pool.setSimulationView(0, 0, 1000, 800);
+    }
+
+    private void tick() {
+        pool.updateAll(FAR, FAR, 10, 10);
+    }
+
+    @Test
+    void removeMovesTheLastEnemyIntoTheFreedSlot() {
+        pool.add(100, 100, SPEED, 0, 9000);
+        pool.add(200, 100, SPEED, 0, 9000);
+        pool.add(300, 300, SPEED, 0, 9000);
+
+        pool.remove(0);
+
+        assertEquals(2, pool.size());
+        assertEquals(300, pool.getX(0));
+        assertEquals(300, pool.getY(0));
+        assertEquals(200, pool.getX(1));
+
+        // The moved enemy is filed under its new index, and nothing is left where the removed one was
+        pool.query(pool.getHitboxX(0), pool.getHitboxY(0), 1, 1, found);
+        assertTrue(contains(found, 0));
+        pool.query(100 + type.getSideOffsetX(), 100 + type.getSideOffsetY(), 1, 1, found);
+        for (int k = 0; k < found.size(); k++) {
+            assertFalse(pool.getX(found.get(k)) == 100);
+        }
+    }
+
+    private static boolean contains(IntList list, int value) {
+        for (int k = 0; k < list.size(); k++) {
+            if (list.get(k) == value) return true;
+        }
+        return false;
+    }
+
+    @Test
+    void queriesWithoutASpatialHashReturnEveryEnemy() {
+        EnemyPool plain = new EnemyPool(type, 4);
+        plain.add(100, 100, SPEED, 0, 9000);
+        plain.add(5000, 100, SPEED, 0, 9000);
+
+        plain.query(0, 0, 1, 1, found);
+        assertEquals(2, found.size());
+        assertTrue(contains(found, 0) && contains(found, 1));
+
+        // Shots test candidates against the exact boxes, so they still hit only what they cross
+        ProjectilePool projectiles = new ProjectilePool(null, 4);
+        projectiles.spawn(plain.getHitboxX(0) - 10, plain.getHitboxY(0) + 2, 20, 0, 10);
+        projectiles.update(TestMaps.cellMap("."), plain);
+        assertTrue(plain.isDying(0));
+        assertTrue(plain.isAlive(1));
+    }
+
+    @Test
+    void removeLastOnlyShrinksThePool() {
+        pool.add(100, 100, SPEED, 0, 9000);
+        pool.add(200, 100, SPEED, 0, 9000);
+
+        pool.remove(1);
+
+        assertEquals(1, pool.size());
+        assertEquals(100, pool.getX(0));
+    }
+
+    @Test
+    void onScreenEnemiesMoveEveryTick() {
+        pool.add(100, 100, SPEED, 0, 9000);
+
+        tick();
+        assertEquals(100 + SPEED, pool.getX(0));
+        tick();
+        assertEquals(100 + 2 * SPEED, pool.getX(0));
+    }
+
+    @Test
+    void nearEnemiesCatchUpEveryFewTicks() {
+        pool.add(1500, 100, SPEED, 0, 9000);
+
+        for (int t = 0; t < 3; t++) {
+            tick();
+            assertEquals(1500, pool.getX(0));
+        }
+        tick();
+        assertEquals(1500 + 4 * SPEED, pool.getX(0));
+    }
+
+    @Test
+    void dormantEnemiesStayFrozenAndDoNotCatchUpOnWaking() {
+        pool.add(5000, 100, SPEED, 0, 9000);
+
+        for (int t = 0; t < 10; t++) {
+            tick();
+        }
+        assertEquals(5000, pool.getX(0));
+
+        pool.setSimulationView(4500, 0, 1000, 800);
+        tick();
+        assertEquals(5000 + SPEED, pool.getX(0));
+    }
+
+    @Test
+    void nearEnemiesCatchUpWhenTheyComeOnScreen() {
+        pool.add(1500, 100, SPEED, 0, 9000);
+        tick();
+        tick();
+
+        pool.setSimulationView(1000, 0, 1000, 800);
+        tick();
+        assertEquals(1500 + 3 * SPEED, pool.getX(0));
+    }
+
+    @Test
+    void enemiesKilledWhileDormantFinishDyingAndAreRemoved() {
+        pool.add(100, 100, SPEED, 0, 9000);
+        pool.add(5000, 100, SPEED, 0, 9000);
+        pool.kill(1);
+
+        for (int t = 0; t < type.getDeathFrameCount() + 1; t++) {
+            tick();
+        }
+        assertEquals(1, pool.size());
+        assertEquals(100 + (type.getDeathFrameCount() + 1) * SPEED, pool.getX(0));
+
+        pool.kill(0);
+        pool.setSimulationView(20_000, 0, 1000, 800);
+        for (int t = 0; t < type.getDeathFrameCount() + 1; t++) {
+            tick();
+        }
+        assertTrue(pool.isEmpty());
+    }
+
+    @Test
+    void enemiesKilledWhileNearAreRemoved() {
+        pool.add(1500, 100, SPEED, 0, 9000);
+        pool.kill(0);
+
+        for (int t = 0; t < type.getDeathFrameCount() + 1; t++) {
+            tick();
+        }
+        assertTrue(pool.isEmpty());
+    }
+
+    @Test
+    void enemiesKilledJustBeforeComingIntoViewPlayTheWholeDeathAnimation() {
+        pool.add(1500, 100, SPEED, 0, 9000);
+        pool.setSimulationView(1700, 0, 1000, 800);
+        tick();
+        tick();
+        tick();
+
+        // Three ticks behind when killed, then on screen right away
+        pool.kill(0);
+        pool.setSimulationView(1000, 0, 1000, 800);
+        tick();
+        assertEquals(1, pool.getDeathFrame(0));
+
+        for (int t = 2; t < type.getDeathFrameCount() - 1; t++) {
+            tick();
+            assertEquals(t, pool.getDeathFrame(0));
+        }
+        tick();
+        assertTrue(pool.isEmpty());
+    }
+
+    @Test
+    void thePlayerKillsOnlyTheEnemiesItTouches() {
+        pool.add(100, 100, 0, 0, 9000);
+        pool.add(400, 100, 0, 0, 9000);
+
+        pool.updateAll(pool.getHitboxX(0), pool.getHitboxY(0), 10, 10);
+
+        assertTrue(pool.isDying(0));
+        assertTrue(pool.isAlive(1));
+    }
+
+    @Test
+    void caughtUpSteeringDoesNotPassThroughWalls() {
+        GameMap map = TestMaps.cellMap(
+                "....................",
+                "..........#.........",
+                "..........#.........",
+                "..........#.........",
+                "....................");
+        pool.setGameMap(map);
+        pool.setSpatialHash(new SpatialHash(map.getWidthInPixels(), map.getHeightInPixels(), TestMaps.CELL));
+
+        // Fleeing right at 30 px per tick, just short of the wall in column 10
+        float startX = 10 * TestMaps.CELL - type.getSideOffsetX() - type.getSideWidth() - 10;
+        int i = pool.add(startX, 100, 30, 0, 9000, EnemyPool.FLEE);
+        float centerY = 100 + type.getSpriteHeight() / 2f;
+        assertTrue(pool.decide(i, startX, centerY));
+
+        // Near the view, so the enemy moves four ticks at once
+        pool.setSimulationView(1000, 0, 1000, 800);
+        for (int t = 0; t < 4; t++) {
+            tick();
+        }
+        assertTrue(pool.getHitboxX(i) + type.getSideWidth() <= 10 * TestMaps.CELL);
+    }
+
+    @Test
+    void patrolsTurnAroundAtWalls() {
+        GameMap map = TestMaps.cellMap(
+                "....................",
+                "..........#.........",
+                "..........#.........",
+                "..........#.........",
+                "....................");
+        pool.setGameMap(map);
+        pool.setSpatialHash(new SpatialHash(map.getWidthInPixels(), map.getHeightInPixels(), TestMaps.CELL));
+
+        // Patrol right into the wall in column 10, first on screen and then caught up every few ticks
+        float wall = 10 * TestMaps.CELL;
+        int onScreen = pool.add(wall - 200, 100, 7, 0, 5000);
+        boolean turned = false;
+        for (int t = 0; t < 120; t++) {
+            tick();
+            assertTrue(pool.getHitboxX(onScreen) + type.getSideWidth() <= wall);
+            turned |= pool.getDirection(onScreen) < 0;
+        }
+        assertTrue(turned);
+
+        int near = pool.add(wall - 200, 100, 7, 0, 5000);
+        pool.setSimulationView(wall + 700, 0, 1000, 800);
+        for (int t = 0; t < 120; t++) {
+            tick();
+            assertTrue(pool.getHitboxX(near) + type.getSideWidth() <= wall);
+        }
+    }
+
+    @Test
+    void theParallelStepMatchesTheSerialStep() throws IOException {
+        GameWorld parallel = crowdedWorld();
+        GameWorld serial = crowdedWorld();
+        serial.getEnemies().setParallelThreshold(Integer.MAX_VALUE);
+        assertTrue(parallel.getEnemies().size() >= 4096 + 1024);
+
+        for (long t = 0; t < 200; t++) {
+            HeadlessGame.driveBot(parallel, t);
+            HeadlessGame.driveBot(serial, t);
+            parallel.tick();
+            serial.tick();
+            assertEquals(serial.checksum(), parallel.checksum(), "checksum after tick " + (t + 1));
+        }
+        assertTrue(parallel.getEnemies().size() >= 4096);
+        assertArrayEquals(state(serial), state(parallel));
+    }
+
+    // A level packed with enemies of every behaviour, spread over all simulation tiers
+    private static GameWorld crowdedWorld() throws IOException {
+        GameWorld world = HeadlessGame.createWorld();
+        world.setAIBudgetMicros(0);
+        world.setViewSize(1000, 800);
+        world.loadLevel("data/map04.json");
+
+        GameMap map = world.getGameMap();
+        EnemyPool enemies = world.getEnemies();
+        Enemy type = enemies.getType();
+        Random random = new Random(3);
+        while (enemies.size() < 6000) {
+            float x = random.nextFloat() * (map.getWidthInPixels() - type.getSpriteWidth());
+            float y = random.nextFloat() * (map.getHeightInPixels() - type.getSpriteHeight());
+            if (map.checkCollision(x + type.getSideOffsetX(), y + type.getSideOffsetY(),
+                    type.getSideWidth(), type.getSideHeight())) continue;
+            enemies.add(x, y, 1 + random.nextFloat() * 3, (int) x - 200, (int) x + 200,
+                    (byte) random.nextInt(EnemyPool.WANDER + 1));
+        }
+        return world;
+    }
+
+    private static byte[] state(GameWorld world) {
+        ByteBuffer buffer = ByteBuffer.allocate(world.stateSize());
+        world.writeState(buffer);
+        return buffer.array();
+    }
+}
@@ -0,0 +1,178 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class FlowFieldTest {
+    private static final int FLOOR = 1;
+    private static final int WALL = 2;
+
+    @Test
+    void distancesOnOpenFloorAreManhattan() {
+        GameMap map = TestMaps.cellMap(
+                ".....",
+                ".....",
+                ".....");
+        FlowField field = map.getFlowField();
+        field.setTarget(0, 0);
+
+        assertEquals(0, field.distanceTo(0, 0));
+        assertEquals(6, field.distanceTo(2, 4));
+        assertEquals(-1, field.nextCell(0, 0));
+        assertEquals(-1, field.distanceTo(-1, 0));
+    }
+
+    @Test
+    void followingNextCellReachesTheTargetAroundWalls() {
+        GameMap map = TestMaps.cellMap(
+                ".#...",
+                ".#.#.",
+                "...#.");
+        FlowField field = map.getFlowField();
+        field.setTarget(0, 4);
+
+        // Down the first column, along the bottom, up the middle column, then across the top
+        assertEquals(8, field.distanceTo(0, 0));
+
+        int cell = 0;
+        int steps = 0;
+        while (field.nextCell(cell / 5, cell % 5) >= 0) {
+            int next = field.nextCell(cell / 5, cell % 5);
+            assertEquals(1, Math.abs(next / 5 - cell / 5) + Math.abs(next % 5 - cell % 5));
+            assertFalse(map.getPathGrid().isSolid(next / 5, next % 5));
+            cell = next;
+            steps++;
+        }
+        assertEquals(4, cell);
+        assertEquals(8, steps);
+    }
+
+    @Test
+    void cellsCutOffFromTheTargetAreUnreachable() {
+        GameMap map = TestMaps.cellMap(
+                "..#..",
+                "..#..");
+        FlowField field = map.getFlowField();
+        field.setTarget(0, 0);
+
+        assertEquals(-1, field.distanceTo(0, 4));
+        assertEquals(-1, field.nextCell(0, 4));
+        assertEquals(-1, field.distanceTo(0, 2));
+    }
+
+    @Test
+    void aBlockedTargetFallsBackToTheNearestOpenCell() {
+        GameMap map = TestMaps.cellMap(
+                ".....",
+                "..#..",
+                ".....");
+        FlowField field = map.getFlowField();
+        field.setTarget(1, 2);
+
+        assertNotEquals(-1, field.getSource());
+        assertFalse(map.getPathGrid().isSolid(field.getSource() / 5, field.getSource() % 5));
+        assertEquals(1, field.distanceTo(1, 0) - field.distanceTo(1, 1));
+        assertTrue(field.distanceTo(0, 4) >= 0);
+    }
+
+    @Test
+    void partlySolidTilesStayWalkableForPathing() {
+        GameMap map = TestMaps.pixelMap(
+                ".....",
+                "..p..",
+                ".###.",
+                ".....");
+        assertTrue(map.getCollisionGrid().isSolid(1, 2));
+        assertFalse(map.getPathGrid().isSolid(1, 2));
+        assertTrue(map.getPathGrid().isSolid(2, 2));
+
+        // The player stands inside the partial cell: chasers still get a path to it
+        FlowField field = map.getFlowField();
+        field.setTarget(1, 2);
+        assertEquals(1, field.distanceTo(0, 2));
+        assertEquals(4, field.distanceTo(3, 0));
+    }
+
+    @Test
+    void switchingCollisionModesRebuildsThePaths() {
+        GameMap map = TestMaps.pixelMap(
+                ".....",
+                "ppppp",
+                ".....");
+        FlowField field = map.getFlowField();
+        field.setTarget(0, 0);
+        assertEquals(2, field.distanceTo(2, 0));
+
+        // Whole-cell collision makes the partial tiles a wall
+        map.setPixelCollision(false);
+        assertTrue(map.getPathGrid().isSolid(1, 2));
+        assertEquals(-1, field.distanceTo(2, 0));
+        assertSameDistances(map, field, 0, 0);
+
+        map.setPixelCollision(true);
+        assertFalse(map.getPathGrid().isSolid(1, 2));
+        assertEquals(2, field.distanceTo(2, 0));
+        assertSameDistances(map, field, 0, 0);
+    }
+
+    @Test
+    void mapsWithoutMasksStayOnWholeCellCollision() {
+        GameMap map = TestMaps.cellMap(".#.");
+        map.setPixelCollision(true);
+
+        assertFalse(map.isPixelCollision());
+        assertTrue(map.checkCollision(TestMaps.CELL + 1, 1, 2, 2));
+    }
+
+    @Test
+    void closingAndReopeningAGapMatchesAFullRebuild() {
+        GameMap map = TestMaps.cellMap(
+                ".....",
+                "##.##",
+                ".....");
+        FlowField field = map.getFlowField();
+        field.setTarget(0, 0);
+        assertEquals(6, field.distanceTo(2, 0));
+
+        map.setBackgroundTile(1, 2, WALL);
+        assertEquals(-1, field.distanceTo(2, 0));
+        assertSameDistances(map, field, 0, 0);
+
+        map.setBackgroundTile(1, 2, FLOOR);
+        assertEquals(6, field.distanceTo(2, 0));
+        assertSameDistances(map, field, 0, 0);
+    }
+
+    @Test
+    void randomEditsMatchAFullRebuild() {
+        String row = "............";
+        for (long seed = 0; seed < 8; seed++) {
+            GameMap map = TestMaps.cellMap(row, row, row, row, row, row, row, row, row, row);
+            FlowField field = map.getFlowField();
+            field.setTarget(4, 5);
+
+            // Edits include the target cell, so the nearest-open-cell fallback gets exercised too
+            Random random = new Random(seed);
+            for (int edit = 0; edit < 300; edit++) {
+                int r = random.nextInt(10);
+                int c = random.nextInt(12);
+                map.setBackgroundTile(r, c, random.nextInt(3) == 0 ? FLOOR : WALL);
+                assertSameDistances(map, field, 4, 5);
+            }
+        }
+    }
+
+    // Compare every distance with a field built from scratch over the same grid
+    private static void assertSameDistances(GameMap map, FlowField field, int targetRow, int targetCol) {
+        FlowField fresh = new FlowField(map.getPathGrid());
+        fresh.setTarget(targetRow, targetCol);
+        for (int r = 0; r < map.getMapHeight(); r++) {
+            for (int c = 0; c < map.getMapWidth(); c++) {
+                assertEquals(fresh.distanceTo(r, c), field.distanceTo(r, c), "distance at " + r + "," + c);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class GameMapRaycastTest {
+    private static final int CELL = TestMaps.CELL;
+    private static final float HALF = CELL / 2f;
+    private static final float EPSILON = 0.01f;
+
+    private final int[] hitCell = new int[1];
+
+    @Test
+    void axisAlignedRaysStopAtTheNearFaceOfTheWall() {
+        GameMap map = TestMaps.cellMap(
+                "..#..",
+                ".....",
+                "#...#",
+                ".....",
+                "..#..");
+        float centre = 2 * CELL + HALF;
+
+        assertEquals(HALF + CELL, map.raycast(centre, centre, 1, 0, 1000, hitCell), EPSILON);
+        assertEquals(2 * 5 + 4, hitCell[0]);
+        assertEquals(HALF + CELL, map.raycast(centre, centre, -1, 0, 1000, hitCell), EPSILON);
+        assertEquals(2 * 5, hitCell[0]);
+        assertEquals(HALF + CELL, map.raycast(centre, centre, 0, 1, 1000, hitCell), EPSILON);
+        assertEquals(4 * 5 + 2, hitCell[0]);
+        assertEquals(HALF + CELL, map.raycast(centre, centre, 0, -1, 1000, hitCell), EPSILON);
+        assertEquals(2, hitCell[0]);
+    }
+
+    @Test
+    void raysThatMissOrFallShortReturnMinusOne() {
+        GameMap map = TestMaps.cellMap(
+                ".....",
+                "....#");
+
+        assertEquals(-1, map.raycast(HALF, HALF, 1, 0, 1000, null));
+        assertEquals(-1, map.raycast(HALF, CELL + HALF, 1, 0, 3 * CELL - 1, null));
+        assertEquals(3 * CELL + HALF, map.raycast(HALF, CELL + HALF, 1, 0, 1000, null), EPSILON);
+        assertEquals(-1, map.raycast(HALF, HALF, 0, 0, 1000, null));
+    }
+
+    @Test
+    void diagonalRaysHitTheCellTheyEnterFirst() {
+        GameMap map = TestMaps.cellMap(
+                "....",
+                "....",
+                "..#.",
+                "....");
+
+        assertEquals(2 * CELL * Math.sqrt(2) - HALF * Math.sqrt(2),
+                map.raycast(HALF, HALF, 1, 1, 1000, hitCell), EPSILON);
+        assertEquals(2 * 4 + 2, hitCell[0]);
+    }
+
+    @Test
+    void aRayStartingInsideASolidCellHitsImmediately() {
+        GameMap map = TestMaps.cellMap(
+                "#...");
+
+        assertEquals(0, map.raycast(HALF, HALF, 1, 0, 1000, hitCell));
+        assertEquals(0, hitCell[0]);
+        assertFalse(map.hasLineOfSight(HALF, HALF, 3 * CELL, HALF));
+        assertFalse(map.hasLineOfSight(HALF, HALF, HALF, HALF));
+    }
+
+    @Test
+    void partlySolidTilesOnlyStopRaysAtTheirSolidPixels() {
+        GameMap map = TestMaps.pixelMap(
+                ".....",
+                "..p..",
+                ".....");
+        assertTrue(map.getCollisionGrid().isSolid(1, 2));
+        float solidBottom = CELL + CELL / 4f;
+
+        // Across the open lower part of the cell, and across its solid top quarter
+        assertEquals(-1, map.raycast(HALF, CELL + HALF, 1, 0, 1000, null));
+        assertEquals(2 * CELL - HALF, map.raycast(HALF, CELL + 8, 1, 0, 1000, hitCell), EPSILON);
+        assertEquals(5 + 2, hitCell[0]);
+
+        // Straight up into the cell from below stops at the bottom of the solid quarter
+        float belowX = 2 * CELL + HALF;
+        float belowY = 2 * CELL + HALF;
+        assertEquals(belowY - solidBottom, map.raycast(belowX, belowY, 0, -1, 1000, null), EPSILON);
+
+        // Starting in the open part of the cell: sight is clear unless the line reaches the top
+        float insideX = 2 * CELL + HALF;
+        float insideY = CELL + HALF;
+        assertTrue(map.hasLineOfSight(insideX, insideY, insideX, insideY));
+        assertTrue(map.hasLineOfSight(insideX, insideY, HALF, insideY));
+        assertTrue(map.hasLineOfSight(HALF, insideY, insideX, insideY));
+        assertFalse(map.hasLineOfSight(insideX, insideY, insideX, HALF));
+        assertFalse(map.hasLineOfSight(insideX, CELL + 4, insideX, CELL + 4));
+    }
+
+    @Test
+    void batchesMatchSingleRaysSerialAndParallel() {
+        GameMap map = TestMaps.pixelMap(
+                "..........",
+                ".#..p...#.",
+                "....#.....",
+                ".p......p.",
+                "..........");
+        Random random = new Random(7);
+
+        for (int count : new int[] {50, 3000}) {
+            float[] originX = new float[count];
+            float[] originY = new float[count];
+            float[] dirX = new float[count];
+            float[] dirY = new float[count];
+            float[] expectedDistances = new float[count];
+            int[] expectedCells = new int[count];
+            for (int i = 0; i < count; i++) {
+                originX[i] = random.nextFloat() * 10 * CELL;
+                originY[i] = random.nextFloat() * 5 * CELL;
+                dirX[i] = random.nextFloat() * 2 - 1;
+                dirY[i] = random.nextFloat() * 2 - 1;
+                hitCell[0] = -1;
+                expectedDistances[i] = map.raycast(originX[i], originY[i], dirX[i], dirY[i], 400, hitCell);
+                expectedCells[i] = hitCell[0];
+            }
+
+            float[] distances = new float[count];
+            int[] cells = new int[count];
+            map.raycastBatch(originX, originY, dirX, dirY, 400, count, distances, cells);
+            assertArrayEquals(expectedDistances, distances);
+            assertArrayEquals(expectedCells, cells);
+        }
+    }
+}
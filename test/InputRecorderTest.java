@@ -0,0 +1,80 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+
+class InputRecorderTest {
+    private static final long TICKS = 3000;
+
+    @Test
+    void aRecordedRunReplaysToTheSameState() throws IOException {
+        File file = record(640, 480);
+
+        InputReplay replay = new InputReplay(file);
+        assertEquals(640, replay.getViewWidth());
+        assertEquals(480, replay.getViewHeight());
+
+        GameWorld world = HeadlessGame.createWorld();
+        world.setAIBudgetMicros(0);
+        world.setViewSize(replay.getViewWidth(), replay.getViewHeight());
+        while (replay.applyDue(world)) {
+            world.tick();
+        }
+
+        assertEquals(TICKS, world.getTick());
+        assertEquals(TICKS, replay.getEndTick());
+        assertTrue(replay.matches(world));
+    }
+
+    @Test
+    void aDifferentEndStateDoesNotMatch() throws IOException {
+        File file = record(0, 0);
+        byte[] data = Files.readAllBytes(file.toPath());
+        data[data.length - 1] ^= 1;
+        Files.write(file.toPath(), data);
+
+        InputReplay replay = new InputReplay(file);
+        GameWorld world = HeadlessGame.createWorld();
+        world.setAIBudgetMicros(0);
+        while (replay.applyDue(world)) {
+            world.tick();
+        }
+        assertTrue(replay.isEnded());
+        assertFalse(replay.matches(world));
+    }
+
+    @Test
+    void otherFilesAreRejected() throws IOException {
+        File file = File.createTempFile("replay", ".rpl");
+        file.deleteOnExit();
+        Files.write(file.toPath(), new byte[] {'{', '}', '\n'});
+
+        assertThrows(IOException.class, () -> new InputReplay(file));
+    }
+
+    // Runs the headless bot on the first level with a recorder attached, as HeadlessGame --record does
+    private static File record(int viewWidth, int viewHeight) throws IOException {
+        GameWorld world = HeadlessGame.createWorld();
+        InputRecorder recorder = new InputRecorder(viewWidth, viewHeight);
+        world.setAIBudgetMicros(0);
+        world.setViewSize(viewWidth, viewHeight);
+        world.setRecorder(recorder);
+        world.loadLevel("data/map01.json");
+        for (long t = 0; t < TICKS; t++) {
+            HeadlessGame.driveBot(world, t);
+            world.tick();
+        }
+        recorder.finish(world.getTick(), world.checksum());
+        assertTrue(recorder.isFinished());
+
+        File file = File.createTempFile("replay", ".rpl");
+        file.deleteOnExit();
+        recorder.save(file);
+        return file;
+    }
+}
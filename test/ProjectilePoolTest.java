@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProjectilePoolTest {
+    private static final int CELL = TestMaps.CELL;
+    private static final float SPEED = 20;
+
+    private GameMap map;
+    private EnemyPool enemies;
+    private ProjectilePool projectiles;
+
+    @BeforeEach
+    void setUp() {
+        map = TestMaps.pixelMap(
+                "......",
+                ".p..#.",
+                "......");
+        enemies = new EnemyPool(new Enemy(32, 32, 6, 6, 4), 4);
+        enemies.setSpatialHash(new SpatialHash(map.getWidthInPixels(), map.getHeightInPixels(), CELL));
+        projectiles = new ProjectilePool(null, 8);
+    }
+
+    @Test
+    void shotsFiredFromTheOpenPartOfASolidCellFlyOn() {
+        // Where a player standing in the partial cell fires from: grid-solid, but open pixels
+        float startX = CELL + CELL / 2f;
+        float startY = CELL + CELL / 2f;
+        assertTrue(map.getCollisionGrid().isSolid(1, 1));
+
+        projectiles.spawn(startX, startY, SPEED, 0, 60);
+        projectiles.update(map, enemies);
+
+        assertEquals(1, projectiles.size());
+        assertEquals(startX + SPEED, projectiles.getX(0));
+    }
+
+    @Test
+    void shotsStopAtTheWall() {
+        projectiles.spawn(3 * CELL, CELL + CELL / 2f, SPEED, 0, 60);
+
+        for (int t = 0; t < 3; t++) {
+            projectiles.update(map, enemies);
+            assertEquals(1, projectiles.size());
+        }
+        projectiles.update(map, enemies);
+        assertEquals(0, projectiles.size());
+    }
+
+    @Test
+    void shotsKillTheFirstEnemyOnTheirPath() {
+        enemies.add(2 * CELL, 2 * CELL, 0, 0, 1000);
+        float targetY = enemies.getHitboxY(0) + 2;
+        projectiles.spawn(CELL / 2f, targetY, SPEED * 4, 0, 60);
+
+        for (int t = 0; t < 3 && projectiles.size() > 0; t++) {
+            projectiles.update(map, enemies);
+        }
+        assertEquals(0, projectiles.size());
+        assertTrue(enemies.isDying(0));
+    }
+}
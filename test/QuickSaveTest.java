@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QuickSaveTest {
+    private static final String LEVEL_A = "data/map02.json";
+    private static final String LEVEL_B = "data/map03.json";
+
+    private GameWorld world;
+    private QuickSave quickSave = new QuickSave(4 << 20);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        world = HeadlessGame.createWorld();
+        world.setAIBudgetMicros(0);
+        world.loadLevel(LEVEL_A);
+    }
+
+    private void run(int ticks) {
+        for (int t = 0; t < ticks; t++) {
+            HeadlessGame.driveBot(world, world.getTick());
+            world.tick();
+        }
+    }
+
+    @Test
+    void loadingWithNothingSavedDoesNothing() {
+        run(10);
+        long checksum = world.checksum();
+
+        assertTrue(quickSave.isEmpty());
+        assertFalse(quickSave.changesLevel(world));
+        assertFalse(quickSave.load(world));
+        assertEquals(10, world.getTick());
+        assertEquals(checksum, world.checksum());
+    }
+
+    @Test
+    void loadingOnTheSameLevelRestoresTheSavedTick() {
+        run(50);
+        assertTrue(quickSave.save(world));
+        long checksum = world.checksum();
+
+        run(50);
+        assertFalse(quickSave.changesLevel(world));
+        assertTrue(quickSave.load(world));
+        assertEquals(50, world.getTick());
+        assertEquals(checksum, world.checksum());
+    }
+
+    @Test
+    void loadingOnAnotherLevelBringsTheSavedLevelBack() throws IOException {
+        run(50);
+        assertTrue(quickSave.save(world));
+        long checksum = world.checksum();
+        int width = world.getGameMap().getMapWidth();
+        int height = world.getGameMap().getMapHeight();
+
+        world.loadLevel(LEVEL_B);
+        run(30);
+        assertTrue(world.getGameMap().getMapWidth() != width || world.getGameMap().getMapHeight() != height);
+
+        assertTrue(quickSave.changesLevel(world));
+        assertTrue(quickSave.load(world));
+        assertEquals(LEVEL_A, world.getLevelFile());
+        assertEquals(width, world.getGameMap().getMapWidth());
+        assertEquals(height, world.getGameMap().getMapHeight());
+        assertEquals(50, world.getTick());
+        assertEquals(checksum, world.checksum());
+
+        // Play goes on from the save as if it had never been left
+        GameWorld reference = HeadlessGame.createWorld();
+        reference.setAIBudgetMicros(0);
+        reference.loadLevel(LEVEL_A);
+        for (int t = 0; t < 80; t++) {
+            HeadlessGame.driveBot(reference, reference.getTick());
+            reference.tick();
+        }
+        run(30);
+        assertEquals(reference.checksum(), world.checksum());
+    }
+}
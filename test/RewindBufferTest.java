@@ -0,0 +1,100 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RewindBufferTest {
+    private GameWorld world;
+    private Map<Long, Long> checksums = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        world = HeadlessGame.createWorld();
+        world.setAIBudgetMicros(0);
+        world.loadLevel("data/map01.json");
+    }
+
+    // Runs the bot for some ticks, capturing after each one as the game does
+    private void run(RewindBuffer buffer, int ticks) {
+        for (int t = 0; t < ticks; t++) {
+            HeadlessGame.driveBot(world, world.getTick());
+            world.tick();
+            checksums.put(world.getTick(), world.checksum());
+            assertTrue(buffer.capture(world));
+        }
+    }
+
+    @Test
+    void theFirstRewindGoesBackOneTick() {
+        RewindBuffer buffer = new RewindBuffer(1 << 20, 100);
+        run(buffer, 10);
+        assertEquals(10, buffer.getNewestTick());
+
+        assertTrue(buffer.rewind(world));
+        assertEquals(9, world.getTick());
+        assertEquals(checksums.get(9L), world.checksum());
+
+        assertTrue(buffer.rewind(world));
+        assertEquals(8, world.getTick());
+        assertEquals(checksums.get(8L), world.checksum());
+        assertEquals(7, buffer.getNewestTick());
+    }
+
+    @Test
+    void rewoundTicksPlayOutTheSameAgain() {
+        RewindBuffer buffer = new RewindBuffer(1 << 20, 100);
+        run(buffer, 60);
+        for (int t = 0; t < 20; t++) {
+            assertTrue(buffer.rewind(world));
+        }
+        assertEquals(40, world.getTick());
+
+        run(buffer, 20);
+        assertEquals(60, world.getTick());
+        assertEquals(checksums.get(60L), world.checksum());
+    }
+
+    @Test
+    void aFullIndexDropsTheOldestSnapshots() {
+        RewindBuffer buffer = new RewindBuffer(1 << 20, 4);
+        run(buffer, 20);
+
+        assertEquals(4, buffer.size());
+        assertEquals(17, buffer.getOldestTick());
+        assertEquals(20, buffer.getNewestTick());
+    }
+
+    @Test
+    void wrappingAroundTheBufferKeepsTheNewestSnapshotsIntact() {
+        int snapshotSize = world.stateSize();
+        RewindBuffer buffer = new RewindBuffer(snapshotSize * 7 / 2 + 64, 100);
+        run(buffer, 25);
+
+        assertTrue(buffer.size() >= 2 && buffer.size() <= 3, "size " + buffer.size());
+        assertEquals(25, buffer.getNewestTick());
+        long oldest = buffer.getOldestTick();
+
+        for (long tick = 24; tick >= oldest; tick--) {
+            assertTrue(buffer.rewind(world));
+            assertEquals(tick, world.getTick());
+            assertEquals(checksums.get(tick), world.checksum());
+        }
+        assertFalse(buffer.rewind(world));
+        assertEquals(0, buffer.size());
+        assertEquals(oldest, world.getTick());
+    }
+
+    @Test
+    void snapshotsLargerThanTheBufferAreRefused() {
+        RewindBuffer buffer = new RewindBuffer(world.stateSize() - 1, 10);
+
+        assertFalse(buffer.capture(world));
+        assertEquals(0, buffer.size());
+        assertFalse(buffer.rewind(world));
+    }
+}
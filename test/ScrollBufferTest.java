@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PImage;
+
+class ScrollBufferTest {
+    private static final int TILE = 4;
+    private static final int SCALE = 2;
+    private static final int CELL = TILE * SCALE;
+    private static final int VIEW_W = 24;
+    private static final int VIEW_H = 16;
+
+    private Sketch sketch = new Sketch();
+    private TileBlitter blitter;
+    private int[][] layer = new int[8][8];
+    private boolean[][] visible = new boolean[8][8];
+    private ScrollBuffer buffer;
+
+    // Counts pixel uploads and draws instead of needing a window
+    private static class Sketch extends PApplet {
+        int uploads = 0;
+        int draws = 0;
+        PImage last;
+
+        @Override
+        public PImage createImage(int w, int h, int format) {
+            last = new PImage(w, h, format) {
+                @Override
+                public void updatePixels() {
+                    uploads++;
+                    super.updatePixels();
+                }
+            };
+            return last;
+        }
+
+        @Override
+        public void image(PImage img, float a, float b) {
+            draws++;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        PImage[] tiles = new PImage[3];
+        for (int t = 0; t < tiles.length; t++) {
+            tiles[t] = new PImage(TILE, TILE, PConstants.ARGB);
+            for (int i = 0; i < TILE * TILE; i++) {
+                tiles[t].pixels[i] = t == 0 ? 0 : 0xFF000000 | (t * 0x40 + i);
+            }
+        }
+        blitter = new TileBlitter(tiles, TILE, TILE, SCALE);
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                layer[row][col] = (row + col) % 2 + 1;
+                visible[row][col] = true;
+            }
+        }
+        buffer = new ScrollBuffer(sketch);
+    }
+
+    private void draw(int viewX, int viewY) {
+        buffer.draw(layer, visible, blitter, viewX, viewY, VIEW_W, VIEW_H);
+    }
+
+    // What a buffer rendering the view from scratch holds
+    private int[] freshPixels(int viewX, int viewY) {
+        Sketch other = new Sketch();
+        new ScrollBuffer(other).draw(layer, visible, blitter, viewX, viewY, VIEW_W, VIEW_H);
+        return other.last.pixels;
+    }
+
+    @Test
+    void aStillViewIsNotUploadedAgain() {
+        draw(5, 3);
+        draw(5, 3);
+        draw(5, 3);
+
+        assertEquals(1, sketch.uploads);
+        assertEquals(3, sketch.draws);
+    }
+
+    @Test
+    void scrollingUploadsAndMatchesAFreshRender() {
+        draw(5, 3);
+        draw(9, 1);
+        draw(2, 6);
+
+        assertEquals(3, sketch.uploads);
+        assertArrayEquals(freshPixels(2, 6), sketch.last.pixels);
+    }
+
+    @Test
+    void onlyEditsInsideTheViewCauseAnUpload() {
+        draw(0, 0);
+
+        layer[7][7] = 1;
+        buffer.invalidateRect(7 * CELL, 7 * CELL, CELL, CELL);
+        draw(0, 0);
+        assertEquals(1, sketch.uploads);
+
+        layer[1][1] = 1;
+        buffer.invalidateRect(CELL, CELL, CELL, CELL);
+        draw(0, 0);
+        assertEquals(2, sketch.uploads);
+        assertArrayEquals(freshPixels(0, 0), sketch.last.pixels);
+
+        // The edit that was off screen shows up once it scrolls in
+        draw(40, 40);
+        assertArrayEquals(freshPixels(40, 40), sketch.last.pixels);
+    }
+
+    @Test
+    void invalidatingRendersTheWholeViewAgain() {
+        draw(0, 0);
+        layer[0][0] = 2;
+        buffer.invalidate();
+        draw(0, 0);
+
+        assertEquals(2, sketch.uploads);
+        assertArrayEquals(freshPixels(0, 0), sketch.last.pixels);
+    }
+}
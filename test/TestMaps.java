@@ -0,0 +1,96 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import javax.imageio.ImageIO;
+
+/**
+ * Builds small headless maps for tests from rows of characters:
+ * '.' is floor, '#' a fully solid wall and 'p' a solid tile whose only opaque
+ * pixels are its top quarter, so most of the cell is walkable with pixel collision.
+ */
+final class TestMaps {
+    static final int TILE_SIZE = 16;
+    static final int SCALE = 4;
+    static final int CELL = TILE_SIZE * SCALE;
+
+    private static final int FLOOR = 1;
+    private static final int WALL = 2;
+    private static final int PARTIAL = 3;
+
+    private TestMaps() {
+    }
+
+    /**
+     * A map whose solid cells collide as whole cells.
+     */
+    static GameMap cellMap(String... rows) {
+        GameMap map = new GameMap(TILE_SIZE, TILE_SIZE, 4, SCALE);
+        map.loadMapFromJSON(writeMap(rows).getPath());
+        return map;
+    }
+
+    /**
+     * A map with pixel collision masks from a generated tileset.
+     */
+    static GameMap pixelMap(String... rows) {
+        try {
+            GameMap map = new GameMap(writeTileset(), 4, 1, SCALE);
+            map.loadMapFromJSON(writeMap(rows).getPath());
+            return map;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static File writeMap(String... rows) {
+        StringBuilder tiles = new StringBuilder();
+        StringBuilder foreground = new StringBuilder();
+        for (int row = 0; row < rows.length; row++) {
+            tiles.append(row == 0 ? "[" : ",[");
+            foreground.append(row == 0 ? "[" : ",[");
+            for (int col = 0; col < rows[row].length(); col++) {
+                char c = rows[row].charAt(col);
+                int tile = c == '#' ? WALL : c == 'p' ? PARTIAL : FLOOR;
+                tiles.append(col == 0 ? "" : ",").append(tile);
+                foreground.append(col == 0 ? "0" : ",0");
+            }
+            tiles.append(']');
+            foreground.append(']');
+        }
+        String json = "{\"width\":" + rows[0].length() + ",\"height\":" + rows.length +
+                ",\"tiles\":[" + tiles + "],\"foreground\":[" + foreground + "],\"enemies\":[]}";
+        return writeTemp("map", ".json", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Tiles: empty, opaque floor, opaque wall, wall with only its top quarter opaque
+    private static File writeTileset() throws IOException {
+        BufferedImage image = new BufferedImage(4 * TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < TILE_SIZE; y++) {
+            for (int x = 0; x < TILE_SIZE; x++) {
+                image.setRGB(FLOOR * TILE_SIZE + x, y, 0xFF808080);
+                image.setRGB(WALL * TILE_SIZE + x, y, 0xFF404040);
+                if (y < TILE_SIZE / 4) {
+                    image.setRGB(PARTIAL * TILE_SIZE + x, y, 0xFF604020);
+                }
+            }
+        }
+        File file = File.createTempFile("tileset", ".png");
+        file.deleteOnExit();
+        ImageIO.write(image, "png", file);
+        return file;
+    }
+
+    private static File writeTemp(String prefix, String suffix, byte[] content) {
+        try {
+            File file = File.createTempFile(prefix, suffix);
+            file.deleteOnExit();
+            Files.write(file.toPath(), content);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TimeHistogramTest {
+    private static final long MS = 1_000_000;
+
+    @Test
+    void emptyHistogramReportsZero() {
+        TimeHistogram histogram = new TimeHistogram();
+        assertEquals(0, histogram.percentileNanos(50));
+        assertEquals(0, histogram.getMeanNanos());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+
+    @Test
+    void percentilesAreAccurateToOneBucket() {
+        TimeHistogram histogram = new TimeHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * MS / 10);  // 0.1 ms .. 10 ms
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(5 * MS, histogram.percentileNanos(50), 10_000);
+        assertEquals(9.5 * MS, histogram.percentileNanos(95), 10_000);
+        assertEquals(9.9 * MS, histogram.percentileNanos(99), 10_000);
+        assertEquals(10 * MS, histogram.percentileNanos(100));
+        assertEquals(10 * MS, histogram.getMaxNanos());
+    }
+
+    @Test
+    void percentileNeverExceedsTheMaximum() {
+        TimeHistogram histogram = new TimeHistogram();
+        histogram.record(1_234);
+        assertEquals(1_234, histogram.percentileNanos(50));
+    }
+
+    @Test
+    void overflowBucketReportsTheMaximum() {
+        TimeHistogram histogram = new TimeHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(MS);
+        }
+        histogram.record(250 * MS);
+        histogram.record(500 * MS);
+
+        assertEquals(MS, histogram.percentileNanos(98), 10_000);
+        assertEquals(500 * MS, histogram.percentileNanos(99));
+        assertEquals(500 * MS, histogram.getMaxNanos());
+    }
+
+    @Test
+    void resetForgetsEverything() {
+        TimeHistogram histogram = new TimeHistogram();
+        histogram.record(3 * MS);
+        histogram.reset();
+        histogram.record(MS);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(MS, histogram.getMaxNanos());
+        assertEquals(MS, histogram.percentileNanos(99), 10_000);
+    }
+}